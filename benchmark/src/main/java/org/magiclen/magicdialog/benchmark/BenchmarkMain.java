@@ -0,0 +1,93 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.NoBenchmarksException;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 執行效能測試的進入點。命令列參數與org.openjdk.jmh.Main相同，包含-h、-l、-lp與-lprof等只列出資訊的模式；執行測試時除了命令列指定的設定外，一律加上GC分析器，讓每個測試都同時回報記憶體配置速率。
+ *
+ * @author Magic Len
+ */
+public final class BenchmarkMain {
+
+    /**
+     * 執行效能測試。
+     *
+     * @param args 傳入JMH的命令列參數
+     * @throws Exception 執行時發生錯誤
+     */
+    public static void main(final String[] args) throws Exception {
+        final CommandLineOptions options;
+        try {
+            options = new CommandLineOptions(args);
+        } catch (final CommandLineOptionException ex) {
+            System.err.println("Error parsing command line:");
+            System.err.println(" " + ex.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        //與org.openjdk.jmh.Main相同，先處理只列出資訊的模式
+        if (options.shouldHelp()) {
+            options.showHelp();
+            return;
+        }
+        if (options.shouldListProfilers()) {
+            options.listProfilers();
+            return;
+        }
+        if (options.shouldListResultFormats()) {
+            options.listResultFormats();
+            return;
+        }
+        final Runner runner = new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build());
+        if (options.shouldList()) {
+            runner.list();
+            return;
+        }
+        if (options.shouldListWithParams()) {
+            runner.listWithParams(options);
+            return;
+        }
+        try {
+            runner.run();
+        } catch (final NoBenchmarksException ex) {
+            System.err.println("No matching benchmarks. Miss-spelled regexp?");
+            System.exit(1);
+        } catch (final RunnerException ex) {
+            System.err.print("ERROR: ");
+            ex.printStackTrace(System.err);
+            System.exit(1);
+        }
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private BenchmarkMain() {
+
+    }
+}
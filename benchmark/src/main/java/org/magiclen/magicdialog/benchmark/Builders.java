@@ -0,0 +1,100 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.benchmark;
+
+import org.magiclen.magicdialog.BatchConfirmDialogs;
+import org.magiclen.magicdialog.ChoiceDialogs;
+import org.magiclen.magicdialog.Dialogs;
+import org.magiclen.magicdialog.DoubleInputDialogs;
+import org.magiclen.magicdialog.InputDialogs;
+import org.magiclen.magicdialog.SimpleProgressDialogs;
+
+/**
+ * 效能測試使用的對話框設定。
+ *
+ * @author Magic Len
+ */
+final class Builders {
+
+    // -----類別方法-----
+    /**
+     * 建立測試用的Dialogs設定。
+     *
+     * @return 傳回對話框設定
+     */
+    static Dialogs dialogs() {
+        return Dialogs.create().title("Benchmark").header("Header").message("Message").type(Dialogs.Type.QUESTION).fontSize(16);
+    }
+
+    /**
+     * 建立測試用的InputDialogs設定。
+     *
+     * @return 傳回對話框設定
+     */
+    static InputDialogs inputDialogs() {
+        return InputDialogs.create().title("Benchmark").header("Header").message("Name:").text("MagicDialog").fontSize(16);
+    }
+
+    /**
+     * 建立測試用的ChoiceDialogs設定。
+     *
+     * @return 傳回對話框設定
+     */
+    static ChoiceDialogs choiceDialogs() {
+        return ChoiceDialogs.create().title("Benchmark").header("Header").message("Pick:").options("Alpha", "Beta", "Gamma", "Delta").defaultOption("Beta").fontSize(16);
+    }
+
+    /**
+     * 建立測試用的DoubleInputDialogs設定。
+     *
+     * @return 傳回對話框設定
+     */
+    static DoubleInputDialogs doubleInputDialogs() {
+        return DoubleInputDialogs.create().title("Benchmark").header("Header").message("User:", "Password:").text("magic", "len").fontSize(16);
+    }
+
+    /**
+     * 建立測試用的BatchConfirmDialogs設定，包含100個項目。
+     *
+     * @return 傳回對話框設定
+     */
+    static BatchConfirmDialogs batchConfirmDialogs() {
+        final String[] items = new String[100];
+        for (int i = 0; i < items.length; ++i) {
+            items[i] = "file-".concat(String.valueOf(i)).concat(".txt");
+        }
+        return BatchConfirmDialogs.create().title("Benchmark").header("Header").items(items).fontSize(16);
+    }
+
+    /**
+     * 建立測試用的SimpleProgressDialogs設定。
+     *
+     * @return 傳回對話框設定
+     */
+    static SimpleProgressDialogs simpleProgressDialogs() {
+        return SimpleProgressDialogs.create().message("Working...").fontSize(16);
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private Builders() {
+
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.magiclen.magicdialog.BatchConfirmDialogs;
+import org.magiclen.magicdialog.ChoiceDialogs;
+import org.magiclen.magicdialog.Dialogs;
+import org.magiclen.magicdialog.DoubleInputDialogs;
+import org.magiclen.magicdialog.InputDialogs;
+import org.magiclen.magicdialog.SimpleProgressDialogs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 測試每個對話框設定類別的clone方法。
+ *
+ * @author Magic Len
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CloneBenchmark {
+
+    // -----物件變數-----
+    private Dialogs dialogs;
+    private InputDialogs inputDialogs;
+    private ChoiceDialogs choiceDialogs;
+    private DoubleInputDialogs doubleInputDialogs;
+    private BatchConfirmDialogs batchConfirmDialogs;
+    private SimpleProgressDialogs simpleProgressDialogs;
+
+    // -----物件方法-----
+    @Setup
+    public void setup() throws Exception {
+        HeadlessFx.start();
+        dialogs = Builders.dialogs().addButton("Retry", null).addButton("Skip", null);
+        inputDialogs = Builders.inputDialogs();
+        choiceDialogs = Builders.choiceDialogs();
+        doubleInputDialogs = Builders.doubleInputDialogs();
+        batchConfirmDialogs = Builders.batchConfirmDialogs();
+        simpleProgressDialogs = Builders.simpleProgressDialogs();
+    }
+
+    @Benchmark
+    public Object dialogs() {
+        return dialogs.clone();
+    }
+
+    @Benchmark
+    public Object inputDialogs() {
+        return inputDialogs.clone();
+    }
+
+    @Benchmark
+    public Object choiceDialogs() {
+        return choiceDialogs.clone();
+    }
+
+    @Benchmark
+    public Object doubleInputDialogs() {
+        return doubleInputDialogs.clone();
+    }
+
+    @Benchmark
+    public Object batchConfirmDialogs() {
+        return batchConfirmDialogs.clone();
+    }
+
+    @Benchmark
+    public Object simpleProgressDialogs() {
+        return simpleProgressDialogs.clone();
+    }
+}
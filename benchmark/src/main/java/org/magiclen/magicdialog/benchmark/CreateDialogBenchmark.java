@@ -0,0 +1,135 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.magiclen.magicdialog.BatchConfirmDialogs;
+import org.magiclen.magicdialog.ChoiceDialogs;
+import org.magiclen.magicdialog.Dialogs;
+import org.magiclen.magicdialog.DoubleInputDialogs;
+import org.magiclen.magicdialog.InputDialogs;
+import org.magiclen.magicdialog.SimpleProgressDialogs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 測試每個對話框設定類別的createDialog方法。對話框必須在JavaFX的應用程式執行緒上建立，因此每次呼叫會在該執行緒上連續建立多個對話框，以攤平切換執行緒的成本。
+ *
+ * @author Magic Len
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateDialogBenchmark {
+
+    // -----類別常數-----
+    static final int BATCH = 16;
+
+    // -----物件變數-----
+    private Dialogs dialogs;
+    private InputDialogs inputDialogs;
+    private ChoiceDialogs choiceDialogs;
+    private DoubleInputDialogs doubleInputDialogs;
+    private BatchConfirmDialogs batchConfirmDialogs;
+    private SimpleProgressDialogs simpleProgressDialogs;
+
+    // -----物件方法-----
+    @Setup
+    public void setup() throws Exception {
+        HeadlessFx.start();
+        dialogs = Builders.dialogs();
+        inputDialogs = Builders.inputDialogs();
+        choiceDialogs = Builders.choiceDialogs();
+        doubleInputDialogs = Builders.doubleInputDialogs();
+        batchConfirmDialogs = Builders.batchConfirmDialogs();
+        simpleProgressDialogs = Builders.simpleProgressDialogs();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void dialogs(final Blackhole blackhole) throws Exception {
+        HeadlessFx.run(() -> {
+            for (int i = 0; i < BATCH; ++i) {
+                blackhole.consume(dialogs.createDialog());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void inputDialogs(final Blackhole blackhole) throws Exception {
+        HeadlessFx.run(() -> {
+            for (int i = 0; i < BATCH; ++i) {
+                blackhole.consume(inputDialogs.createDialog());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void choiceDialogs(final Blackhole blackhole) throws Exception {
+        HeadlessFx.run(() -> {
+            for (int i = 0; i < BATCH; ++i) {
+                blackhole.consume(choiceDialogs.createDialog());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void doubleInputDialogs(final Blackhole blackhole) throws Exception {
+        HeadlessFx.run(() -> {
+            for (int i = 0; i < BATCH; ++i) {
+                blackhole.consume(doubleInputDialogs.createDialog());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void batchConfirmDialogs(final Blackhole blackhole) throws Exception {
+        HeadlessFx.run(() -> {
+            for (int i = 0; i < BATCH; ++i) {
+                blackhole.consume(batchConfirmDialogs.createDialog());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void simpleProgressDialogs(final Blackhole blackhole) throws Exception {
+        HeadlessFx.run(() -> {
+            for (int i = 0; i < BATCH; ++i) {
+                blackhole.consume(simpleProgressDialogs.createDialog());
+            }
+        });
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import javafx.scene.layout.Pane;
+import javafx.scene.text.Font;
+import org.magiclen.magicdialog.InputDialogs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 測試字型相關的成本，包含建立Font物件與對話框設定類別走訪整個對話框來更改字型的changeFontSize方法。
+ *
+ * @author Magic Len
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FontBenchmark {
+
+    // -----類別常數-----
+    static final int BATCH = 64;
+
+    // -----物件變數-----
+    private InputDialogs inputDialogs;
+    private MethodHandle changeFontSize;
+    private Pane dialogPane;
+    private Font font;
+    private double fontSize;
+
+    // -----物件方法-----
+    @Setup
+    public void setup() throws Exception {
+        HeadlessFx.start();
+        inputDialogs = Builders.inputDialogs();
+        //changeFontSize是私有方法，只能透過反射取得
+        final Method method = InputDialogs.class.getDeclaredMethod("changeFontSize", Font.class, Pane.class);
+        method.setAccessible(true);
+        changeFontSize = MethodHandles.lookup().unreflect(method);
+        dialogPane = HeadlessFx.call(() -> inputDialogs.createDialog().getDialogPane());
+        font = new Font(Font.getDefault().getFamily(), 18);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void changeFontSize() throws Exception {
+        HeadlessFx.call(() -> {
+            for (int i = 0; i < BATCH; ++i) {
+                try {
+                    changeFontSize.invoke(inputDialogs, font, dialogPane);
+                } catch (final Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Benchmark
+    public Font newFont() {
+        //每次使用不同的大小，避免只測到同一個字型的快取
+        fontSize = fontSize >= 32 ? 8 : fontSize + 0.5;
+        return new Font("System", fontSize);
+    }
+}
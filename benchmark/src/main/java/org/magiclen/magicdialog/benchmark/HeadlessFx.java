@@ -0,0 +1,114 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.benchmark;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javafx.application.Platform;
+
+/**
+ * 在沒有螢幕的環境下(Monocle)啟動JavaFX，並在JavaFX的應用程式執行緒上執行程式。
+ *
+ * @author Magic Len
+ */
+public final class HeadlessFx {
+
+    // -----類別變數-----
+    private static boolean started;
+
+    // -----類別方法-----
+    /**
+     * 啟動JavaFX，重複呼叫不會重複啟動。
+     *
+     * @throws InterruptedException 等待時被中斷
+     */
+    public static synchronized void start() throws InterruptedException {
+        if (started) {
+            return;
+        }
+        setPropertyIfAbsent("glass.platform", "Monocle");
+        setPropertyIfAbsent("monocle.platform", "Headless");
+        setPropertyIfAbsent("prism.order", "sw");
+        setPropertyIfAbsent("java.awt.headless", "true");
+        final CountDownLatch latch = new CountDownLatch(1);
+        Platform.startup(latch::countDown);
+        latch.await();
+        Platform.setImplicitExit(false);
+        started = true;
+    }
+
+    /**
+     * 在JavaFX的應用程式執行緒上執行程式，並等待它執行完成。
+     *
+     * @param <T> 結果的型態
+     * @param callable 傳入要執行的程式
+     * @return 傳回執行結果
+     * @throws Exception 程式丟出的例外
+     */
+    public static <T> T call(final Callable<T> callable) throws Exception {
+        if (Platform.isFxApplicationThread()) {
+            return callable.call();
+        }
+        final FutureTask<T> task = new FutureTask<>(callable);
+        Platform.runLater(task);
+        try {
+            return task.get();
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * 在JavaFX的應用程式執行緒上執行程式，並等待它執行完成。
+     *
+     * @param runnable 傳入要執行的程式
+     * @throws Exception 程式丟出的例外
+     */
+    public static void run(final Runnable runnable) throws Exception {
+        call(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * 若系統屬性尚未設定，則設定它。
+     *
+     * @param key 傳入屬性名稱
+     * @param value 傳入屬性值
+     */
+    private static void setPropertyIfAbsent(final String key, final String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private HeadlessFx() {
+
+    }
+}
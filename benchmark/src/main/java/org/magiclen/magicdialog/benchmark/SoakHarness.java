@@ -0,0 +1,475 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javafx.animation.AnimationTimer;
+import javafx.beans.Observable;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.TextInputDialog;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import org.magiclen.magicdialog.ChoiceDialogs;
+import org.magiclen.magicdialog.Dialogs;
+import org.magiclen.magicdialog.DoubleInputDialogs;
+import org.magiclen.magicdialog.InputDialogs;
+import org.magiclen.magicdialog.SimpleProgressDialogs;
+import org.magiclen.magicdialog.dialogs.SimpleProgressDialog;
+import org.magiclen.magicdialog.progress.ProgressCounter;
+
+/**
+ * 長時間反覆開關對話框的壓力測試。在沒有螢幕的環境下，以固定的速率建立、顯示並自動回應各種對話框，定期記錄GC後的堆積大小、Stage數量、擁有者視窗上的監聽器數量、還活著的擁有者視窗數量與AnimationTimer兩次回呼之間的平均間隔。對話框都是由同一組一直存在的建構器(或其複製品)建立，擁有者視窗則會輪流替換，以檢查建構器是否留住已關閉的擁有者視窗。若這些數值持續上升、測試結束後仍有已關閉的擁有者視窗無法被回收，或是達不到指定的速率，則以非0的結束代碼結束。
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar org.magiclen.magicdialog.benchmark.SoakHarness --minutes 10 --rate 6000 --sample 15
+ * </pre>
+ *
+ * @author Magic Len
+ */
+public final class SoakHarness {
+
+    // -----類別常數-----
+    private static final int WARMUP_SAMPLES = 2;
+    private static final int MIN_GROWTH_SAMPLES = 5;
+    private static final double HEAP_GROWTH_TOLERANCE = 0.1;
+    private static final long HEAP_GROWTH_FLOOR = 1024 * 1024;
+    private static final double FRAME_GROWTH_TOLERANCE = 0.5;
+    private static final double RATE_TOLERANCE = 0.9;
+
+    // -----內部類別-----
+    /**
+     * 一次取樣的結果。
+     */
+    private static final class Sample {
+
+        // -----物件常數-----
+        private final double minute;
+        private final long heap;
+        private final int stages;
+        private final int listeners;
+        private final int liveOwners;
+        private final double frameInterval;
+        private final long dialogs;
+
+        // -----建構子-----
+        Sample(final double minute, final long heap, final int stages, final int listeners, final int liveOwners, final double frameInterval, final long dialogs) {
+            this.minute = minute;
+            this.heap = heap;
+            this.stages = stages;
+            this.listeners = listeners;
+            this.liveOwners = liveOwners;
+            this.frameInterval = frameInterval;
+            this.dialogs = dialogs;
+        }
+
+        // -----物件方法-----
+        @Override
+        public String toString() {
+            return String.format("%7.2f min  heap %8.2f MiB  stages %4d  listeners %5d  live owners %4d  frame interval %6.2f ms  dialogs %9d", minute, heap / 1048576.0, stages, listeners, liveOwners, frameInterval, dialogs);
+        }
+    }
+
+    // -----類別變數-----
+    private static long frameCount;
+    private static long frameTotal;
+    private static long lastFrame;
+    private static Dialogs questionTemplate;
+    private static InputDialogs inputTemplate;
+    private static ChoiceDialogs choiceTemplate;
+    private static DoubleInputDialogs doubleInputTemplate;
+    private static SimpleProgressDialogs progressTemplate;
+
+    // -----類別方法-----
+    /**
+     * 執行壓力測試。
+     *
+     * @param args 傳入參數，--minutes為測試的分鐘數，--rate為每分鐘要開關的對話框數量，--sample為取樣間隔的秒數
+     * @throws Exception 執行時發生錯誤
+     */
+    public static void main(final String[] args) throws Exception {
+        try {
+            System.exit(soak(args) ? 0 : 1);
+        } catch (final Exception ex) {
+            ex.printStackTrace();
+            //JavaFX的執行緒不是守護執行緒，必須明確結束程式
+            System.exit(2);
+        }
+    }
+
+    /**
+     * 執行壓力測試。
+     *
+     * @param args 傳入參數
+     * @return 傳回是否通過測試
+     * @throws Exception 執行時發生錯誤
+     */
+    private static boolean soak(final String[] args) throws Exception {
+        double minutes = 5;
+        int rate = 3000;
+        int sampleSeconds = 10;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--minutes":
+                    minutes = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--rate":
+                    rate = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--sample":
+                    sampleSeconds = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: ".concat(args[i]));
+            }
+        }
+
+        HeadlessFx.start();
+        final Stage mainOwner = HeadlessFx.call(SoakHarness::createOwner);
+        HeadlessFx.run(() -> {
+            new AnimationTimer() {
+                @Override
+                public void handle(final long now) {
+                    if (lastFrame != 0) {
+                        frameTotal += now - lastFrame;
+                        ++frameCount;
+                    }
+                    lastFrame = now;
+                }
+            }.start();
+            //建構器在整個測試期間只建立一次，模擬應用程式中長期保存的範本
+            questionTemplate = Dialogs.create().owner(mainOwner).type(Dialogs.Type.QUESTION).header("Soak").message("Continue?").audio(null);
+            inputTemplate = InputDialogs.create().owner(mainOwner).message("Name:").audio(null);
+            choiceTemplate = ChoiceDialogs.create().owner(mainOwner).message("Pick:").options("Alpha", "Beta", "Gamma").defaultOption("Beta").audio(null);
+            doubleInputTemplate = DoubleInputDialogs.create().owner(mainOwner).message("User:", "Password:").text("magic", "len").audio(null);
+            progressTemplate = SimpleProgressDialogs.create().owner(mainOwner).message("Working...").audio(null);
+        });
+
+        final List<WeakReference<Stage>> transientOwners = new ArrayList<>();
+        final List<Sample> samples = new ArrayList<>();
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        final long intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, rate);
+        final long sampleNanos = TimeUnit.SECONDS.toNanos(sampleSeconds);
+        final long startTime = System.nanoTime();
+        final long endTime = startTime + (long) (minutes * TimeUnit.MINUTES.toNanos(1));
+        long nextDialog = startTime;
+        long nextSample = startTime + sampleNanos;
+        long dialogCount = 0;
+
+        System.out.printf("Soaking for %.1f minutes at %d dialogs per minute.%n", minutes, rate);
+        while (System.nanoTime() < endTime) {
+            final long cycle = dialogCount++;
+            HeadlessFx.run(() -> {
+                //雙數次以範本的複製品開在一直存在的擁有者視窗上；單數次把範本本身指向新的擁有者視窗，用完再指回去，以檢查關閉後的擁有者是否被範本或對話框留住
+                final int kind = (int) (cycle / 2 % 5);
+                if (cycle % 2 == 0) {
+                    openAndAnswer(mainOwner, kind, true);
+                } else {
+                    final Stage owner = createOwner();
+                    transientOwners.add(new WeakReference<>(owner));
+                    openAndAnswer(owner, kind, false);
+                    owner.close();
+                    resetTemplates(mainOwner);
+                }
+            });
+
+            final long now = System.nanoTime();
+            if (now >= nextSample) {
+                nextSample += sampleNanos;
+                final Sample sample = sample(memory, mainOwner, transientOwners, (now - startTime) / 6e10, dialogCount);
+                samples.add(sample);
+                System.out.println(sample);
+            }
+
+            nextDialog += intervalNanos;
+            final long sleep = nextDialog - System.nanoTime();
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+        }
+
+        final double elapsedMinutes = (System.nanoTime() - startTime) / 6e10;
+        final double achievedRate = dialogCount / elapsedMinutes;
+        System.out.printf("Opened and answered %d dialogs, %.0f per minute.%n", dialogCount, achievedRate);
+
+        final List<String> failures = new ArrayList<>();
+        if (achievedRate < rate * RATE_TOLERANCE) {
+            failures.add(String.format("throughput %.0f dialogs per minute is below the target of %d", achievedRate, rate));
+        }
+        final List<Sample> steady = samples.size() > WARMUP_SAMPLES ? samples.subList(WARMUP_SAMPLES, samples.size()) : new ArrayList<>();
+        if (steady.size() >= MIN_GROWTH_SAMPLES) {
+            final Sample first = steady.get(0);
+            final Sample last = steady.get(steady.size() - 1);
+            if (isMonotonic(steady, 0) && last.heap - first.heap > Math.max(HEAP_GROWTH_FLOOR, first.heap * HEAP_GROWTH_TOLERANCE)) {
+                failures.add("heap after GC grew in every sample");
+            }
+            if (isMonotonic(steady, 1) && last.stages > first.stages) {
+                failures.add("the number of stages grew in every sample");
+            }
+            if (isMonotonic(steady, 2) && last.listeners > first.listeners) {
+                failures.add("listeners on the owner window grew in every sample");
+            }
+            if (isMonotonic(steady, 3) && last.liveOwners > first.liveOwners) {
+                failures.add("closed owner windows are kept alive");
+            }
+            if (isMonotonic(steady, 4) && last.frameInterval > first.frameInterval * (1 + FRAME_GROWTH_TOLERANCE)) {
+                failures.add("the interval between animation frames grew in every sample");
+            }
+        } else {
+            System.out.println("Not enough samples to check for growth; run longer or sample more often.");
+        }
+
+        //所有暫時的擁有者視窗都已關閉，範本也已指回一直存在的擁有者視窗，此時它們都必須能被回收
+        final Sample end = sample(memory, mainOwner, transientOwners, elapsedMinutes, dialogCount);
+        System.out.println(end);
+        if (end.liveOwners > 0) {
+            failures.add(String.format("%d closed owner windows are still reachable at the end", end.liveOwners));
+        }
+
+        HeadlessFx.run(mainOwner::close);
+        if (failures.isEmpty()) {
+            System.out.println("PASSED");
+            return true;
+        }
+        for (final String failure : failures) {
+            System.out.println("FAILED: ".concat(failure));
+        }
+        return false;
+    }
+
+    /**
+     * 建立並顯示擁有者視窗。
+     *
+     * @return 傳回擁有者視窗
+     */
+    private static Stage createOwner() {
+        final Stage stage = new Stage();
+        stage.setTitle("Soak");
+        stage.setScene(new Scene(new StackPane(), 640, 480));
+        stage.show();
+        return stage;
+    }
+
+    /**
+     * 開啟一個對話框並立即以腳本回應。對話框由長期保存的範本建立，若不使用複製品，範本的擁有者視窗會被改成傳入的擁有者視窗。
+     *
+     * @param owner 傳入擁有者視窗
+     * @param kind 傳入對話框的種類
+     * @param useClone 傳入是否使用範本的複製品
+     */
+    private static void openAndAnswer(final Window owner, final int kind, final boolean useClone) {
+        switch (kind) {
+            case 0: {
+                final Dialogs builder = useClone ? (Dialogs) questionTemplate.clone() : questionTemplate;
+                final Dialog<?> dialog = builder.owner(owner).createDialog();
+                dialog.show();
+                press(dialog, ButtonType.OK);
+                break;
+            }
+            case 1: {
+                final InputDialogs builder = useClone ? (InputDialogs) inputTemplate.clone() : inputTemplate;
+                final TextInputDialog dialog = (TextInputDialog) builder.owner(owner).createDialog();
+                dialog.show();
+                dialog.getEditor().setText("soak");
+                press(dialog, ButtonType.OK);
+                break;
+            }
+            case 2: {
+                final ChoiceDialogs builder = useClone ? (ChoiceDialogs) choiceTemplate.clone() : choiceTemplate;
+                final Dialog<?> dialog = builder.owner(owner).createDialog();
+                dialog.show();
+                press(dialog, ButtonType.OK);
+                break;
+            }
+            case 3: {
+                final DoubleInputDialogs builder = useClone ? (DoubleInputDialogs) doubleInputTemplate.clone() : doubleInputTemplate;
+                final Dialog<?> dialog = builder.owner(owner).createDialog();
+                dialog.show();
+                press(dialog, ButtonType.OK);
+                break;
+            }
+            default: {
+                final ProgressCounter counter = new ProgressCounter(100);
+                final SimpleProgressDialogs builder = useClone ? (SimpleProgressDialogs) progressTemplate.clone() : progressTemplate;
+                final SimpleProgressDialog dialog = builder.owner(owner).progress(counter).createDialog();
+                dialog.show();
+                counter.add(100);
+                dialog.close();
+                break;
+            }
+        }
+    }
+
+    /**
+     * 將所有範本的擁有者視窗指回一直存在的擁有者視窗。
+     *
+     * @param mainOwner 傳入一直存在的擁有者視窗
+     */
+    private static void resetTemplates(final Window mainOwner) {
+        questionTemplate.owner(mainOwner);
+        inputTemplate.owner(mainOwner);
+        choiceTemplate.owner(mainOwner);
+        doubleInputTemplate.owner(mainOwner);
+        progressTemplate.owner(mainOwner);
+    }
+
+    /**
+     * 按下對話框的按鈕，若對話框沒有這個按鈕則直接關閉。
+     *
+     * @param dialog 傳入對話框
+     * @param buttonType 傳入按鈕
+     */
+    private static void press(final Dialog<?> dialog, final ButtonType buttonType) {
+        final Node button = dialog.getDialogPane().lookupButton(buttonType);
+        if (button instanceof Button) {
+            ((Button) button).fire();
+        }
+        if (dialog.isShowing()) {
+            dialog.close();
+        }
+    }
+
+    /**
+     * 執行GC後取樣。
+     *
+     * @param memory 傳入記憶體監控
+     * @param mainOwner 傳入一直存在的擁有者視窗
+     * @param transientOwners 傳入已關閉的擁有者視窗
+     * @param minute 傳入經過的分鐘數
+     * @param dialogs 傳入目前為止開關的對話框數量
+     * @return 傳回取樣結果
+     * @throws Exception 執行時發生錯誤
+     */
+    private static Sample sample(final MemoryMXBean memory, final Stage mainOwner, final List<WeakReference<Stage>> transientOwners, final double minute, final long dialogs) throws Exception {
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        final long heap = memory.getHeapMemoryUsage().getUsed();
+        return HeadlessFx.call(() -> {
+            final Iterator<WeakReference<Stage>> iterator = transientOwners.iterator();
+            int liveOwners = 0;
+            while (iterator.hasNext()) {
+                if (iterator.next().get() == null) {
+                    iterator.remove();
+                } else {
+                    ++liveOwners;
+                }
+            }
+            final double frameInterval = frameCount == 0 ? 0 : frameTotal / 1e6 / frameCount;
+            frameCount = 0;
+            frameTotal = 0;
+            final int listeners = countListeners(mainOwner.showingProperty()) + countListeners(mainOwner.focusedProperty()) + countListeners(mainOwner.iconifiedProperty()) + countListeners(mainOwner.xProperty()) + countListeners(mainOwner.yProperty()) + countListeners(mainOwner.widthProperty()) + countListeners(mainOwner.heightProperty()) + countListeners(mainOwner.sceneProperty());
+            return new Sample(minute, heap, Window.getWindows().size(), listeners, liveOwners, frameInterval, dialogs);
+        });
+    }
+
+    /**
+     * 計算屬性上的監聽器數量。JavaFX沒有公開這個數量，因此透過反射讀取屬性內部的ExpressionHelper。
+     *
+     * @param property 傳入屬性
+     * @return 傳回監聽器的數量，無法讀取時回傳0
+     */
+    private static int countListeners(final Observable property) {
+        try {
+            Object helper = null;
+            for (Class<?> c = property.getClass(); c != null; c = c.getSuperclass()) {
+                try {
+                    final Field field = c.getDeclaredField("helper");
+                    field.setAccessible(true);
+                    helper = field.get(property);
+                    break;
+                } catch (final NoSuchFieldException ex) {
+                }
+            }
+            if (helper == null) {
+                return 0;
+            }
+            final String name = helper.getClass().getSimpleName();
+            if (name.startsWith("Single")) {
+                return 1;
+            }
+            int count = 0;
+            for (final String sizeField : new String[]{"invalidationSize", "changeSize"}) {
+                final Field field = helper.getClass().getDeclaredField(sizeField);
+                field.setAccessible(true);
+                count += field.getInt(helper);
+            }
+            return count;
+        } catch (final Exception ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * 判斷取樣結果中的某個數值是否每次都上升。
+     *
+     * @param samples 傳入取樣結果
+     * @param metric 傳入數值的種類
+     * @return 傳回是否每次都上升
+     */
+    private static boolean isMonotonic(final List<Sample> samples, final int metric) {
+        for (int i = 1; i < samples.size(); ++i) {
+            if (valueOf(samples.get(i), metric) <= valueOf(samples.get(i - 1), metric)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 取得取樣結果中的某個數值。
+     *
+     * @param sample 傳入取樣結果
+     * @param metric 傳入數值的種類
+     * @return 傳回數值
+     */
+    private static double valueOf(final Sample sample, final int metric) {
+        switch (metric) {
+            case 0:
+                return sample.heap;
+            case 1:
+                return sample.stages;
+            case 2:
+                return sample.listeners;
+            case 3:
+                return sample.liveOwners;
+            default:
+                return sample.frameInterval;
+        }
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private SoakHarness() {
+
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.Observable;
+import javafx.scene.Node;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.DialogPane;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+/**
+ * 對話框的非同步輸入驗證。
+ *
+ * @author Magic Len
+ */
+final class AsyncValidation {
+
+    // -----類別常數-----
+    /**
+     * 預設的輸入停頓時間。
+     */
+    static final Duration DEFAULT_DELAY = Duration.millis(300);
+    private static final Color ERROR_COLOR = Color.web("#c62828");
+
+    // -----類別方法-----
+    /**
+     * 讓對話框在輸入內容改變並停頓一段時間後，於背景執行緒驗證輸入的內容。驗證中或是驗證失敗時，確定按鈕會被停用，錯誤訊息會顯示在輸入方塊下方。輸入內容再次改變時，正在執行的驗證會被取消，且過時的驗證結果會被忽略。
+     *
+     * @param <T> 輸入內容的型態
+     * @param dialog 傳入對話框
+     * @param validator 傳入驗證器，若為null則不驗證
+     * @param delay 傳入輸入停頓多久後開始驗證
+     * @param value 傳入取得目前輸入內容的方法，會在JavaFX的應用程式執行緒上被呼叫
+     * @param sources 傳入輸入內容的來源，來源改變時將重新驗證
+     */
+    static <T> void install(final Dialog<?> dialog, final AsyncValidator<? super T> validator, final Duration delay, final Supplier<T> value, final Observable... sources) {
+        if (validator == null) {
+            return;
+        }
+        final DialogPane dialogPane = dialog.getDialogPane();
+        final Node okButton = dialogPane.lookupButton(ButtonType.OK);
+
+        final Label lError = new Label();
+        lError.setTextFill(ERROR_COLOR);
+        lError.setWrapText(true);
+        lError.managedProperty().bind(lError.visibleProperty());
+        lError.setVisible(false);
+
+        final VBox vbContent = new VBox(5);
+        final Node content = dialogPane.getContent();
+        if (content != null) {
+            vbContent.getChildren().add(content);
+        } else {
+            vbContent.getChildren().add(new Label(dialogPane.getContentText()));
+        }
+        vbContent.getChildren().add(lError);
+        dialogPane.setContent(vbContent);
+
+        //世代編號用來辨認最新的驗證，只會在應用程式執行緒上存取
+        final long[] generation = new long[1];
+        final BackgroundTask<?>[] running = new BackgroundTask<?>[1];
+
+        final PauseTransition debounce = new PauseTransition(delay == null ? DEFAULT_DELAY : delay);
+        debounce.setOnFinished(e -> {
+            final long current = generation[0];
+            final T input = value.get();
+            final BackgroundTask<String> task = new BackgroundTask<>(() -> validator.validate(input));
+            running[0] = task;
+            task.getFuture().whenComplete((message, ex) -> {
+                if (ex instanceof CancellationException) {
+                    return;
+                }
+                Platform.runLater(() -> {
+                    if (current != generation[0]) {
+                        return;
+                    }
+                    running[0] = null;
+                    final String error = ex != null ? (ex.getMessage() != null ? ex.getMessage() : ex.toString()) : message;
+                    if (okButton != null) {
+                        okButton.setDisable(error != null);
+                    }
+                    lError.setText(error);
+                    lError.setVisible(error != null);
+                });
+            });
+            DialogThreads.BACKGROUND.execute(task);
+        });
+
+        final Runnable invalidate = () -> {
+            ++generation[0];
+            if (running[0] != null) {
+                running[0].cancel();
+                running[0] = null;
+            }
+            if (okButton != null) {
+                okButton.setDisable(true);
+            }
+        };
+
+        for (final Observable source : sources) {
+            source.addListener(observable -> {
+                invalidate.run();
+                debounce.playFromStart();
+            });
+        }
+
+        //初始的內容不需要等待停頓，顯示時立即驗證
+        invalidate.run();
+        dialog.showingProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                debounce.stop();
+                debounce.getOnFinished().handle(null);
+            } else {
+                debounce.stop();
+                invalidate.run();
+            }
+        });
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private AsyncValidation() {
+
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+/**
+ * 對話框輸入內容的驗證器。驗證會在背景執行緒上執行，因此可以進行較耗時的檢查，例如查詢索引或是資料庫。使用者持續輸入時，過時的驗證會被取消，只有最新輸入內容的驗證結果會被採用。
+ *
+ * @author Magic Len
+ * @param <T> 輸入內容的型態
+ */
+@FunctionalInterface
+public interface AsyncValidator<T> {
+
+    /**
+     * 驗證輸入的內容。此方法會在背景執行緒上被呼叫，取消過時的驗證時會中斷執行驗證的執行緒。
+     *
+     * @param value 傳入輸入的內容
+     * @return 若輸入的內容正確，傳回null，否則傳回要顯示給使用者的錯誤訊息
+     * @throws Exception 驗證失敗時拋出例外，例外的訊息將顯示給使用者
+     */
+    String validate(T value) throws Exception;
+}
@@ -0,0 +1,244 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.text.Font;
+import javafx.stage.Popup;
+import javafx.util.Duration;
+
+/**
+ * 輸入方塊的自動完成。
+ *
+ * @author Magic Len
+ */
+final class Autocomplete {
+
+    // -----類別常數-----
+    /**
+     * 預設的建議數量上限。
+     */
+    static final int DEFAULT_LIMIT = 50;
+    private static final Duration DELAY = Duration.millis(150);
+    private static final int VISIBLE_ROWS = 8;
+
+    /**
+     * 每個建議來源與建議數量上限的快取，只在JavaFX的應用程式執行緒上存取。建議來源是否已傳回所有的建議與上限有關，因此不同的上限不能共用快取。建議來源不再被使用時，快取也會跟著被回收。
+     */
+    private static final WeakHashMap<SuggestionProvider, HashMap<Integer, SuggestionCache>> CACHES = new WeakHashMap<>();
+
+    // -----類別方法-----
+    /**
+     * 清除建議來源的所有快取。可以在任何執行緒上呼叫。
+     *
+     * @param provider 傳入建議來源
+     */
+    static void invalidate(final SuggestionProvider provider) {
+        DialogThreads.runOnFxThread(() -> {
+            final HashMap<Integer, SuggestionCache> caches = CACHES.get(provider);
+            if (caches != null) {
+                caches.values().forEach(SuggestionCache::clear);
+            }
+        });
+    }
+
+    /**
+     * 讓輸入方塊在使用者輸入時，於彈出的清單中顯示建議。建議會先從快取中尋找，找不到時才在輸入停頓後於背景執行緒向建議來源查詢。
+     *
+     * @param dialog 傳入輸入方塊所在的對話框
+     * @param editor 傳入輸入方塊
+     * @param provider 傳入建議來源，若為null則不顯示建議
+     * @param limit 傳入建議數量的上限
+     * @param font 傳入字型
+     */
+    static void install(final Dialog<?> dialog, final TextField editor, final SuggestionProvider provider, final int limit, final Font font) {
+        if (provider == null) {
+            return;
+        }
+        final SuggestionCache cache = CACHES.computeIfAbsent(provider, key -> new HashMap<>()).computeIfAbsent(limit, SuggestionCache::new);
+
+        final ListView<String> lvSuggestions = new ListView<>();
+        lvSuggestions.setFocusTraversable(false);
+        lvSuggestions.setStyle(String.format("-fx-font-family: \"%s\"; -fx-font-size: %fpx;", font.getFamily(), font.getSize()));
+        lvSuggestions.setFixedCellSize(Math.ceil(font.getSize() * 2));
+        lvSuggestions.prefWidthProperty().bind(editor.widthProperty());
+
+        final Popup popup = new Popup();
+        popup.setAutoHide(true);
+        popup.getContent().add(lvSuggestions);
+
+        //世代編號用來辨認最新的查詢，只會在應用程式執行緒上存取
+        final long[] generation = new long[1];
+        final boolean[] applying = new boolean[1];
+        final BackgroundTask<?>[] running = new BackgroundTask<?>[1];
+        final String[] pending = new String[1];
+
+        final Runnable cancel = () -> {
+            ++generation[0];
+            if (running[0] != null) {
+                running[0].cancel();
+                running[0] = null;
+            }
+        };
+
+        final PauseTransition debounce = new PauseTransition(DELAY);
+        debounce.setOnFinished(e -> {
+            final long current = generation[0];
+            final String prefix = pending[0];
+            final long version = cache.getVersion();
+            final BackgroundTask<List<String>> task = new BackgroundTask<>(() -> provider.suggest(prefix, limit));
+            running[0] = task;
+            task.getFuture().whenComplete((items, ex) -> {
+                if (ex instanceof CancellationException) {
+                    return;
+                }
+                Platform.runLater(() -> {
+                    if (current != generation[0]) {
+                        return;
+                    }
+                    running[0] = null;
+                    if (ex == null) {
+                        show(popup, lvSuggestions, editor, cache.put(prefix, items, version));
+                    } else {
+                        popup.hide();
+                    }
+                });
+            });
+            DialogThreads.BACKGROUND.execute(task);
+        });
+
+        editor.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (applying[0]) {
+                return;
+            }
+            cancel.run();
+            debounce.stop();
+            if (newValue == null || newValue.isEmpty()) {
+                popup.hide();
+                return;
+            }
+            final List<String> cached = cache.get(newValue);
+            if (cached != null) {
+                show(popup, lvSuggestions, editor, cached);
+            } else {
+                pending[0] = newValue;
+                debounce.playFromStart();
+            }
+        });
+
+        final Runnable apply = () -> {
+            final String selected = lvSuggestions.getSelectionModel().getSelectedItem();
+            popup.hide();
+            if (selected != null) {
+                applying[0] = true;
+                try {
+                    editor.setText(selected);
+                    editor.positionCaret(selected.length());
+                } finally {
+                    applying[0] = false;
+                }
+            }
+        };
+
+        //彈出視窗不會取得焦點，因此由輸入方塊處理清單的按鍵
+        editor.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (!popup.isShowing()) {
+                return;
+            }
+            switch (e.getCode()) {
+                case DOWN:
+                    lvSuggestions.getSelectionModel().selectNext();
+                    lvSuggestions.scrollTo(lvSuggestions.getSelectionModel().getSelectedIndex());
+                    e.consume();
+                    break;
+                case UP:
+                    lvSuggestions.getSelectionModel().selectPrevious();
+                    lvSuggestions.scrollTo(lvSuggestions.getSelectionModel().getSelectedIndex());
+                    e.consume();
+                    break;
+                case ENTER:
+                case TAB:
+                    if (lvSuggestions.getSelectionModel().getSelectedItem() != null) {
+                        apply.run();
+                        e.consume();
+                    }
+                    break;
+                case ESCAPE:
+                    popup.hide();
+                    e.consume();
+                    break;
+                default:
+                    break;
+            }
+        });
+        lvSuggestions.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY) {
+                apply.run();
+            }
+        });
+
+        dialog.showingProperty().addListener((observable, oldValue, newValue) -> {
+            if (!newValue) {
+                debounce.stop();
+                cancel.run();
+                popup.hide();
+            }
+        });
+    }
+
+    /**
+     * 顯示建議。
+     *
+     * @param popup 傳入彈出視窗
+     * @param lvSuggestions 傳入建議清單
+     * @param editor 傳入輸入方塊
+     * @param items 傳入建議
+     */
+    private static void show(final Popup popup, final ListView<String> lvSuggestions, final TextField editor, final List<String> items) {
+        if (items.isEmpty() || editor.getScene() == null || editor.getScene().getWindow() == null || !editor.getScene().getWindow().isShowing()) {
+            popup.hide();
+            return;
+        }
+        lvSuggestions.getItems().setAll(items);
+        lvSuggestions.getSelectionModel().clearSelection();
+        lvSuggestions.setPrefHeight(lvSuggestions.getFixedCellSize() * Math.min(items.size(), VISIBLE_ROWS) + 2);
+        if (!popup.isShowing()) {
+            final Bounds bounds = editor.localToScreen(editor.getBoundsInLocal());
+            popup.show(editor, bounds.getMinX(), bounds.getMaxY());
+        }
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private Autocomplete() {
+
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 在背景執行的可取消工作。取消時會中斷正在執行工作的執行緒，並讓工作的結果成為已取消。
+ *
+ * @author Magic Len
+ */
+final class BackgroundTask<T> implements Runnable {
+
+    // -----物件常數-----
+    private final Callable<T> callable;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private final Object lock = new Object();
+
+    // -----物件變數-----
+    private Thread thread;
+    private volatile boolean cancelled;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param callable 傳入要執行的工作
+     */
+    BackgroundTask(final Callable<T> callable) {
+        this.callable = callable;
+        future.whenComplete((result, ex) -> {
+            if (future.isCancelled()) {
+                cancel();
+            }
+        });
+    }
+
+    // -----物件方法-----
+    @Override
+    public void run() {
+        synchronized (lock) {
+            if (cancelled) {
+                return;
+            }
+            thread = Thread.currentThread();
+        }
+        try {
+            final T result = callable.call();
+            if (cancelled) {
+                future.cancel(false);
+            } else {
+                future.complete(result);
+            }
+        } catch (final Throwable ex) {
+            if (cancelled) {
+                future.cancel(false);
+            } else {
+                future.completeExceptionally(ex);
+            }
+        } finally {
+            synchronized (lock) {
+                thread = null;
+                //清除中斷狀態，避免影響執行緒接下來執行的其他工作
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * 取消工作，並中斷正在執行工作的執行緒。若工作還沒開始執行，結果會立即成為已取消。
+     */
+    void cancel() {
+        final boolean started;
+        synchronized (lock) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            started = thread != null;
+            if (started) {
+                thread.interrupt();
+            }
+        }
+        if (!started) {
+            //工作還沒開始或是已經結束，run方法不會再完成結果，因此直接讓結果成為已取消
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * 取得工作的執行結果。
+     *
+     * @return 傳回工作的執行結果
+     */
+    CompletableFuture<T> getFuture() {
+        return future;
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * 批次確認對話框設定類別，可以在同一個對話框中逐項或是一次確認大量的項目，若要建立出對話框必須使用create方法。
+ *
+ * @author Magic Len
+ */
+public class BatchConfirmDialogs implements Cloneable {
+
+    // -----類別介面-----
+    // -----類別列舉-----
+    // -----內部類別-----
+    /**
+     * 項目索引的清單，不需要為每個項目建立物件。
+     */
+    private static final class IndexList extends AbstractList<Integer> {
+
+        private final int size;
+
+        IndexList(final int size) {
+            this.size = size;
+        }
+
+        @Override
+        public Integer get(final int index) {
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * 顯示項目文字的表格格子。
+     */
+    private static final class ItemCell extends TableCell<Integer, Integer> {
+
+        private final String[] items;
+
+        ItemCell(final String[] items) {
+            this.items = items;
+        }
+
+        @Override
+        protected void updateItem(final Integer index, final boolean empty) {
+            super.updateItem(index, empty);
+            setText(empty || index == null ? null : items[index]);
+        }
+    }
+
+    /**
+     * 顯示與修改項目是否同意的表格格子。
+     */
+    private static final class DecisionCell extends TableCell<Integer, Integer> {
+
+        private final boolean[] decisions;
+        private final CheckBox checkBox = new CheckBox();
+
+        DecisionCell(final boolean[] decisions) {
+            this.decisions = decisions;
+            setAlignment(Pos.CENTER);
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+            checkBox.setOnAction(e -> {
+                final Integer index = getItem();
+                if (index != null) {
+                    decisions[index] = checkBox.isSelected();
+                }
+            });
+        }
+
+        @Override
+        protected void updateItem(final Integer index, final boolean empty) {
+            super.updateItem(index, empty);
+            if (empty || index == null) {
+                setGraphic(null);
+            } else {
+                checkBox.setSelected(decisions[index]);
+                setGraphic(checkBox);
+            }
+        }
+    }
+
+    // -----類別常數-----
+    private static final Font DEFAULT_FONT = Font.getDefault();
+    private static final double FONT_SIZE = DEFAULT_FONT.getSize();
+    private static final String FONT_FAMILY = Font.getDefault().getFamily();
+    private static final String[] EMPTY_ITEMS = new String[0];
+
+    // -----類別方法-----
+    /**
+     * 建立對話框的設定檔。
+     *
+     * @return 傳回新的對話框設定
+     */
+    public static BatchConfirmDialogs create() {
+        return new BatchConfirmDialogs();
+    }
+
+    // -----物件變數-----
+    private WeakReference<Window> owner;
+    private String title = "Title";
+    private String message = null;
+    private String header = null;
+    private String[] items = EMPTY_ITEMS;
+    private boolean defaultDecision = true;
+    private String itemColumnText = "Item";
+    private String decisionColumnText = "Yes";
+    private double fontSize = FONT_SIZE;
+    private String fontFamily = FONT_FAMILY;
+    private DialogAudio audio = DialogAudio.DEFAULT;
+    private DialogGraphic graphic = null;
+    private Duration timeout = null;
+    private ButtonType timeoutAnswer = null;
+
+    // -----建構子-----
+    /**
+     * 建構子，設為private，無法提供其他類別實體化。
+     */
+    private BatchConfirmDialogs() {
+
+    }
+
+    // -----物件方法-----
+    /**
+     * 更改文字大小。
+     *
+     * @param font 傳入字型
+     * @param pane 傳入容器
+     */
+    private void changeFontSize(final Font font, final Pane pane) {
+        final String style;
+        if (fontFamily != null) {
+            style = "-fx-font-family: \"".concat(fontFamily).concat("\";-fx-font-size: ").concat(String.valueOf((int) font.getSize())).concat("px;");
+        } else {
+            style = "-fx-font-size: ".concat(String.valueOf((int) font.getSize())).concat("px;");
+        }
+        pane.getChildren().stream().forEach(node -> {
+            if (node instanceof Pane) {
+                changeFontSize(font, (Pane) node);
+            } else if (node instanceof Labeled) {
+                ((Labeled) node).setFont(font);
+            } else if (node instanceof ButtonBar) {
+                ((ButtonBar) node).getButtons().stream().filter(insideNode -> insideNode instanceof Button).forEach(insideNode -> {
+                    final Button button = (Button) insideNode;
+                    button.setFont(font);
+                });
+            } else if (node instanceof TableView) {
+                ((TableView) node).setStyle(style);
+            }
+        });
+    }
+
+    /**
+     * 建立對話框。表格只會建立看得到的列，因此即使有大量的項目也只需要一個對話框。
+     *
+     * @return 傳回對話框，使用者按下確定後的結果為每個項目是否同意的陣列
+     */
+    public Dialog<boolean[]> createDialog() {
+        final long startTime = System.nanoTime();
+        final Font font = new Font(fontFamily, fontSize);
+        final String[] items = this.items;
+        final boolean[] decisions = new boolean[items.length];
+        Arrays.fill(decisions, defaultDecision);
+
+        final Dialog<boolean[]> dialog = new Dialog<>();
+        dialog.initOwner(getOwner());
+        dialog.setTitle(title);
+        dialog.setHeaderText(header);
+        if (graphic != null) {
+            dialog.setGraphic(graphic.createNode(getOwner()));
+        }
+        dialog.setResizable(true);
+        //沿用確認對話框的樣式與圖片
+        dialog.getDialogPane().getStyleClass().addAll("alert", "confirmation");
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        //使用項目的索引值作為表格的資料，不需為每個項目建立物件
+        final ObservableList<Integer> rows = FXCollections.observableList(new IndexList(items.length));
+
+        final TableView<Integer> table = new TableView<>(rows);
+        table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        final TableColumn<Integer, Integer> itemColumn = new TableColumn<>(itemColumnText);
+        itemColumn.setSortable(false);
+        itemColumn.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
+        itemColumn.setCellFactory(column -> new ItemCell(items));
+
+        final TableColumn<Integer, Integer> decisionColumn = new TableColumn<>(decisionColumnText);
+        decisionColumn.setSortable(false);
+        decisionColumn.setMinWidth(60);
+        decisionColumn.setMaxWidth(80);
+        decisionColumn.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
+        decisionColumn.setCellFactory(column -> new DecisionCell(decisions));
+
+        table.getColumns().add(itemColumn);
+        table.getColumns().add(decisionColumn);
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        final Button bYes = new Button("Yes");
+        bYes.setOnAction(e -> {
+            table.getSelectionModel().getSelectedIndices().forEach(index -> decisions[index] = true);
+            table.refresh();
+        });
+        final Button bNo = new Button("No");
+        bNo.setOnAction(e -> {
+            table.getSelectionModel().getSelectedIndices().forEach(index -> decisions[index] = false);
+            table.refresh();
+        });
+        final Button bYesToAll = new Button("Yes to All");
+        bYesToAll.setOnAction(e -> {
+            Arrays.fill(decisions, true);
+            table.refresh();
+        });
+        final Button bNoToAll = new Button("No to All");
+        bNoToAll.setOnAction(e -> {
+            Arrays.fill(decisions, false);
+            table.refresh();
+        });
+        final HBox hbBulk = new HBox(8, bYes, bNo, bYesToAll, bNoToAll);
+
+        final VBox vbMain = new VBox(8);
+        if (message != null) {
+            final Label lMessage = new Label(message);
+            lMessage.setWrapText(true);
+            vbMain.getChildren().add(lMessage);
+        }
+        vbMain.getChildren().addAll(table, hbBulk);
+        vbMain.setPadding(new Insets(10, 10, 0, 10));
+        vbMain.setPrefSize(480, 360);
+        dialog.getDialogPane().setContent(vbMain);
+
+        dialog.setResultConverter(dialogButton -> {
+            if (dialogButton == ButtonType.OK) {
+                return decisions.clone();
+            }
+            return null;
+        });
+
+        //設定標籤文字大小與高度
+        changeFontSize(font, dialog.getDialogPane());
+
+        //逾時自動回應
+        DialogTimeouts.install(dialog, timeout, timeoutAnswer);
+
+        //加入音效
+        final DialogAudio actuallyAudio = getActuallyAudio();
+        dialog.setOnShown(e -> {
+            DialogAudio.playAudio(actuallyAudio);
+        });
+
+        //記錄監控資料
+        DialogMetrics.track(getClass(), dialog, startTime);
+
+        return dialog;
+    }
+
+    /**
+     * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行，如果要取得對話框物件的參考需使用createDialog方法。
+     *
+     * @return 傳回每個項目是否同意的陣列，順序與傳入的項目相同，如果沒有按下確定，回傳null
+     */
+    public boolean[] showAndWait() {
+        final Dialog<boolean[]> dialog = createDialog();
+        final Optional<boolean[]> resultOpt = dialog.showAndWait();
+        if (resultOpt.isPresent()) {
+            return resultOpt.get();
+        }
+        return null;
+    }
+
+    /**
+     * 設定擁有對話框的Window。對話框設定只會弱參考這個Window，因此長期保存的對話框設定不會讓已關閉的Window無法被回收。
+     *
+     * @param owner 傳入擁有對話框的Window
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs owner(final Window owner) {
+        this.owner = owner == null ? null : new WeakReference<>(owner);
+        return this;
+    }
+
+    /**
+     * 設定對話框的標題。
+     *
+     * @param title 傳入對話框的標題
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs title(final String title) {
+        this.title = title;
+        return this;
+    }
+
+    /**
+     * 設定對話框的訊息。
+     *
+     * @param message 傳入對話框的訊息
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs message(final String message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * 設定對話框的訊息標題。
+     *
+     * @param header 傳入對話框的訊息標題
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs header(final String header) {
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * 設定要確認的項目。
+     *
+     * @param items 傳入要確認的項目
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs items(final String... items) {
+        if (items == null) {
+            this.items = EMPTY_ITEMS;
+        } else {
+            final String[] list = new String[items.length];
+            System.arraycopy(items, 0, list, 0, items.length);
+            this.items = list;
+        }
+        return this;
+    }
+
+    /**
+     * 設定要確認的項目，每個項目將使用toString方法顯示。
+     *
+     * @param items 傳入要確認的項目
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs items(final Collection<?> items) {
+        if (items == null) {
+            this.items = EMPTY_ITEMS;
+        } else {
+            final String[] list = new String[items.size()];
+            int i = 0;
+            for (final Object item : items) {
+                list[i++] = String.valueOf(item);
+            }
+            this.items = list;
+        }
+        return this;
+    }
+
+    /**
+     * 設定每個項目預設是否同意。
+     *
+     * @param defaultDecision 傳入每個項目預設是否同意
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs defaultDecision(final boolean defaultDecision) {
+        this.defaultDecision = defaultDecision;
+        return this;
+    }
+
+    /**
+     * 設定表格欄位的標題。
+     *
+     * @param itemColumnText 傳入項目欄位的標題
+     * @param decisionColumnText 傳入是否同意欄位的標題
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs columns(final String itemColumnText, final String decisionColumnText) {
+        this.itemColumnText = itemColumnText;
+        this.decisionColumnText = decisionColumnText;
+        return this;
+    }
+
+    /**
+     * 設定對話框的字體大小。
+     *
+     * @param fontSize 傳入對話框的字體大小
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs fontSize(final double fontSize) {
+        this.fontSize = fontSize;
+        return this;
+    }
+
+    /**
+     * 設定對話框的字體樣式。
+     *
+     * @param fontFamily 傳入對話框的字體樣式
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs fontFamily(final String fontFamily) {
+        this.fontFamily = fontFamily;
+        return this;
+    }
+
+    /**
+     * 設定對話框的音效，音效將在使用show或是showAndWait方法時播放出來。
+     *
+     * @param audio 傳入對話框的音效
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs audio(final DialogAudio audio) {
+        if (audio == null) {
+            this.audio = DialogAudio.NONE;
+        } else {
+            this.audio = audio;
+        }
+        return this;
+    }
+
+    /**
+     * 設定對話框的圖片。
+     *
+     * @param graphic 傳入對話框的圖片，若為null則使用預設的圖片
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs graphic(final DialogGraphic graphic) {
+        this.graphic = graphic;
+        return this;
+    }
+
+    /**
+     * 設定對話框的逾時時間。對話框顯示超過逾時時間使用者仍未回應時，將自動按下指定的按鈕並關閉對話框。若按下的是確定按鈕，將會傳回目前每個項目的選擇。
+     *
+     * @param timeout 傳入逾時時間，若為null則不會逾時
+     * @param defaultAnswer 傳入逾時時要按下的按鈕，若對話框沒有這個按鈕或是這個按鈕被停用(例如輸入尚未通過驗證)，則以取消按鈕關閉對話框，沒有取消按鈕時以這個按鈕作為結果關閉對話框
+     * @return 再把對話框設定傳回
+     */
+    public BatchConfirmDialogs timeout(final Duration timeout, final ButtonType defaultAnswer) {
+        this.timeout = timeout;
+        this.timeoutAnswer = defaultAnswer;
+        return this;
+    }
+
+    /**
+     * 複製對話框設定。
+     *
+     * @return 傳回設定值一樣但是為不同物件的對話框設定
+     */
+    @Override
+    public Object clone() {
+        final BatchConfirmDialogs dialogs = BatchConfirmDialogs.create();
+        dialogs.audio(audio).graphic(graphic).fontSize(fontSize).fontFamily(fontFamily).owner(getOwner()).message(message).header(header).title(title).items(items).defaultDecision(defaultDecision).columns(itemColumnText, decisionColumnText).timeout(timeout, timeoutAnswer);
+        return dialogs;
+    }
+
+    /**
+     * 取得擁有對話框的Window。
+     *
+     * @return 傳回擁有對話框的Window，若沒有設定或是已被回收，回傳null
+     */
+    private Window getOwner() {
+        return owner == null ? null : owner.get();
+    }
+
+    /**
+     * 取得實際要播放的音效。
+     *
+     * @return 傳回實際要播放的音效
+     */
+    private DialogAudio getActuallyAudio() {
+        DialogAudio actuallyAudio = audio;
+        if (audio == DialogAudio.DEFAULT) {
+            actuallyAudio = DialogAudio.DUDUDU;
+        }
+        return actuallyAudio;
+    }
+}
@@ -17,9 +17,11 @@
  */
 package org.magiclen.magicdialog;
 
+import java.lang.ref.WeakReference;
 import java.util.Optional;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Dialog;
@@ -28,6 +30,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.Pane;
 import javafx.scene.text.Font;
 import javafx.stage.Window;
+import javafx.util.Duration;
 
 /**
  * 選擇對話框設定類別，若要建立出對話框必須使用create方法。
@@ -54,7 +57,7 @@ public class ChoiceDialogs implements Cloneable {
     }
 
     // -----物件變數-----
-    private Window owner;
+    private WeakReference<Window> owner;
     private String title = "Title";
     private String message = null;
     private String header = null;
@@ -63,6 +66,10 @@ public class ChoiceDialogs implements Cloneable {
     private double fontSize = FONT_SIZE;
     private String fontFamily = FONT_FAMILY;
     private DialogAudio audio = DialogAudio.DEFAULT;
+    private DialogGraphic graphic = null;
+    private Duration timeout = null;
+    private ButtonType timeoutAnswer = null;
+    private String rememberKey = null;
 
     // -----建構子-----
     /**
@@ -110,31 +117,49 @@ public class ChoiceDialogs implements Cloneable {
      * @return 傳回對話框
      */
     public Dialog createDialog() {
+        final long startTime = System.nanoTime();
         final Font font = new Font(fontFamily, fontSize);
 
         final ChoiceDialog dialog = new ChoiceDialog(defaultOption, (Object[]) options);
-        dialog.initOwner(owner);
+        dialog.initOwner(getOwner());
         dialog.setTitle(title);
         dialog.setHeaderText(header);
+        if (graphic != null) {
+            dialog.setGraphic(graphic.createNode(getOwner()));
+        }
         dialog.setContentText(message);
 
+        //記住使用者的決定
+        RememberedDecisions.install(dialog, rememberKey, font);
+
         //設定標籤文字大小與高度
         changeFontSize(font, dialog.getDialogPane());
 
+        //逾時自動回應
+        DialogTimeouts.install(dialog, timeout, timeoutAnswer);
+
         //加入音效
+        final DialogAudio actuallyAudio = getActuallyAudio();
         dialog.setOnShown(e -> {
-            playAudio();
+            DialogAudio.playAudio(actuallyAudio);
         });
 
+        //記錄監控資料
+        DialogMetrics.track(getClass(), dialog, startTime);
+
         return dialog;
     }
 
     /**
      * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行，如果要取得對話框物件的參考需使用createDialog方法。
      *
-     * @return 傳回使用者選擇的文字，如果沒有選擇，回傳null
+     * @return 傳回使用者選擇的文字，如果沒有選擇，回傳null。若有記住的決定，則不會顯示對話框，直接傳回記住的項目
      */
     public String showAndWait() {
+        final String rememberedValue = getRememberedValue();
+        if (rememberedValue != null) {
+            return rememberedValue;
+        }
         final Dialog dialog = createDialog();
         final Optional<String> buttonTypeOpt = dialog.showAndWait();
         if (buttonTypeOpt.isPresent()) {
@@ -144,13 +169,13 @@ public class ChoiceDialogs implements Cloneable {
     }
 
     /**
-     * 設定擁有對話框的Window。
+     * 設定擁有對話框的Window。對話框設定只會弱參考這個Window，因此長期保存的對話框設定不會讓已關閉的Window無法被回收。
      *
      * @param owner 傳入擁有對話框的Window
      * @return 再把對話框設定傳回
      */
     public ChoiceDialogs owner(final Window owner) {
-        this.owner = owner;
+        this.owner = owner == null ? null : new WeakReference<>(owner);
         return this;
     }
 
@@ -252,6 +277,41 @@ public class ChoiceDialogs implements Cloneable {
         return this;
     }
 
+    /**
+     * 設定對話框的圖片。
+     *
+     * @param graphic 傳入對話框的圖片，若為null則使用預設的圖片
+     * @return 再把對話框設定傳回
+     */
+    public ChoiceDialogs graphic(final DialogGraphic graphic) {
+        this.graphic = graphic;
+        return this;
+    }
+
+    /**
+     * 設定對話框的逾時時間。對話框顯示超過逾時時間使用者仍未回應時，將自動按下指定的按鈕並關閉對話框。若按下的是確定按鈕，將會傳回目前選擇的項目。
+     *
+     * @param timeout 傳入逾時時間，若為null則不會逾時
+     * @param defaultAnswer 傳入逾時時要按下的按鈕，若對話框沒有這個按鈕或是這個按鈕被停用(例如輸入尚未通過驗證)，則以取消按鈕關閉對話框，沒有取消按鈕時以這個按鈕作為結果關閉對話框
+     * @return 再把對話框設定傳回
+     */
+    public ChoiceDialogs timeout(final Duration timeout, final ButtonType defaultAnswer) {
+        this.timeout = timeout;
+        this.timeoutAnswer = defaultAnswer;
+        return this;
+    }
+
+    /**
+     * 讓對話框可以記住使用者的決定。對話框中會多出「不要再問」的選項，使用者勾選後按下確定按鈕時，選擇的項目將會存入DecisionStore，之後使用showAndWait方法時不會再顯示對話框，而是直接傳回記住的項目。
+     *
+     * @param key 傳入決定的名稱，若為null則不會記住
+     * @return 再把對話框設定傳回
+     */
+    public ChoiceDialogs rememberAs(final String key) {
+        this.rememberKey = key;
+        return this;
+    }
+
     /**
      * 複製對話框設定。
      *
@@ -260,14 +320,45 @@ public class ChoiceDialogs implements Cloneable {
     @Override
     public Object clone() {
         final ChoiceDialogs dialogs = ChoiceDialogs.create();
-        dialogs.audio(audio).fontSize(fontSize).fontFamily(fontFamily).owner(owner).message(message).header(header).title(title).options(options).defaultOption(defaultOption);
+        dialogs.audio(audio).graphic(graphic).fontSize(fontSize).fontFamily(fontFamily).owner(getOwner()).message(message).header(header).title(title).options(options).defaultOption(defaultOption).timeout(timeout, timeoutAnswer).rememberAs(rememberKey);
         return dialogs;
     }
 
     /**
-     * 播放音效。
+     * 取得記住的決定。
+     *
+     * @return 傳回記住的項目，若沒有記住或是選單中已經沒有這個項目，回傳null
+     */
+    private String getRememberedValue() {
+        if (rememberKey == null || options == null) {
+            return null;
+        }
+        final String value = DecisionStore.get(rememberKey);
+        if (value != null) {
+            for (final String option : options) {
+                if (value.equals(option)) {
+                    return option;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 取得擁有對話框的Window。
+     *
+     * @return 傳回擁有對話框的Window，若沒有設定或是已被回收，回傳null
+     */
+    private Window getOwner() {
+        return owner == null ? null : owner.get();
+    }
+
+    /**
+     * 取得實際要播放的音效。
+     *
+     * @return 傳回實際要播放的音效
      */
-    private void playAudio() {
-        DialogAudio.playAudio(audio);
+    private DialogAudio getActuallyAudio() {
+        return audio;
     }
 }
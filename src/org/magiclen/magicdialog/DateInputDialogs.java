@@ -0,0 +1,384 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.lang.ref.WeakReference;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.DateCell;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextFormatter;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.text.Font;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import javafx.util.converter.LocalDateStringConverter;
+
+/**
+ * 日期輸入對話框設定類別，若要建立出對話框必須使用create方法。日期以ISO格式(yyyy-MM-dd)輸入，也可以從日曆中選擇，每次編輯只會檢查加入的文字。確定按鈕是否可用則會在每次編輯後解析固定10個字元的文字，且解析時不會建立物件。
+ *
+ * @author Magic Len
+ */
+public class DateInputDialogs implements Cloneable {
+
+    // -----類別介面-----
+    // -----類別列舉-----
+    // -----類別常數-----
+    private static final Font DEFAULT_FONT = Font.getDefault();
+    private static final double FONT_SIZE = DEFAULT_FONT.getSize();
+    private static final String FONT_FAMILY = Font.getDefault().getFamily();
+    private static final DialogGraphic DEFAULT_GRAPHIC = DialogGraphic.image("/org/magiclen/magicdialog/did.png");
+
+    // -----類別方法-----
+    /**
+     * 建立對話框的設定檔。
+     *
+     * @return 傳回新的對話框設定
+     */
+    public static DateInputDialogs create() {
+        return new DateInputDialogs();
+    }
+
+    // -----物件變數-----
+    private WeakReference<Window> owner;
+    private String title = "Title";
+    private String message = null;
+    private String header = null;
+    private LocalDate value = null;
+    private LocalDate min = null;
+    private LocalDate max = null;
+    private double fontSize = FONT_SIZE;
+    private String fontFamily = FONT_FAMILY;
+    private DialogAudio audio = DialogAudio.DEFAULT;
+    private DialogGraphic graphic = null;
+    private Duration timeout = null;
+    private ButtonType timeoutAnswer = null;
+
+    // -----建構子-----
+    /**
+     * 建構子，設為private，無法提供其他類別實體化。
+     */
+    private DateInputDialogs() {
+
+    }
+
+    // -----物件方法-----
+    /**
+     * 更改文字大小。
+     *
+     * @param font 傳入字型
+     * @param pane 傳入容器
+     */
+    private void changeFontSize(final Font font, final Pane pane) {
+        pane.getChildren().stream().forEach(node -> {
+            if (node instanceof Pane) {
+                changeFontSize(font, (Pane) node);
+            } else if (node instanceof Labeled) {
+                ((Labeled) node).setFont(font);
+            } else if (node instanceof TextField) {
+                ((TextField) node).setFont(font);
+            } else if (node instanceof ButtonBar) {
+                ((ButtonBar) node).getButtons().stream().filter(insideNode -> insideNode instanceof Button).forEach(insideNode -> {
+                    final Button button = (Button) insideNode;
+                    button.setFont(font);
+                });
+            }
+        });
+    }
+
+    /**
+     * 建立對話框。
+     *
+     * @return 傳回對話框
+     */
+    public Dialog<LocalDate> createDialog() {
+        final long startTime = System.nanoTime();
+        final Font font = new Font(fontFamily, fontSize);
+
+        final Dialog<LocalDate> dialog = new Dialog<>();
+        dialog.initOwner(getOwner());
+        dialog.setTitle(title);
+        dialog.setHeaderText(header);
+        dialog.setGraphic((graphic != null ? graphic : DEFAULT_GRAPHIC).createNode(getOwner()));
+
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        final GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 20, 10, 10));
+
+        final long minDay = min == null ? Long.MIN_VALUE + 1 : min.toEpochDay();
+        final long maxDay = max == null ? Long.MAX_VALUE : max.toEpochDay();
+        final DatePicker input = new DatePicker(value);
+        input.setConverter(new LocalDateStringConverter(DateTimeFormatter.ISO_LOCAL_DATE, DateTimeFormatter.ISO_LOCAL_DATE));
+        input.setDayCellFactory(picker -> new DateCell() {
+            @Override
+            public void updateItem(final LocalDate item, final boolean empty) {
+                super.updateItem(item, empty);
+                setDisable(empty || !isInRange(item.toEpochDay(), minDay, maxDay));
+            }
+        });
+        input.setMaxWidth(Integer.MAX_VALUE);
+        final TextField editor = input.getEditor();
+        editor.setTextFormatter(new TextFormatter<>(TypedInput.dateFilter()));
+        editor.setText(value == null ? "" : value.toString());
+        editor.setFont(font);
+
+        grid.add(new Label(message), 0, 0);
+        grid.add(input, 1, 0);
+
+        dialog.getDialogPane().setContent(grid);
+
+        input.requestFocus();
+
+        //只有完整的輸入才能按下確定按鈕
+        final Node okButton = dialog.getDialogPane().lookupButton(ButtonType.OK);
+        okButton.setDisable(!(isInRange(TypedInput.parseEpochDay(editor.getText()), minDay, maxDay)));
+        editor.textProperty().addListener((observable, oldValue, newValue) -> {
+            okButton.setDisable(!(isInRange(TypedInput.parseEpochDay(editor.getText()), minDay, maxDay)));
+        });
+
+        dialog.setResultConverter(dialogButton -> {
+            if (dialogButton == ButtonType.OK) {
+                return TypedInput.parseDate(editor.getText());
+            }
+            return null;
+        });
+
+        //設定標籤文字大小與高度
+        changeFontSize(font, dialog.getDialogPane());
+
+        //逾時自動回應
+        DialogTimeouts.install(dialog, timeout, timeoutAnswer);
+
+        //加入音效
+        final DialogAudio actuallyAudio = getActuallyAudio();
+        dialog.setOnShown(e -> {
+            DialogAudio.playAudio(actuallyAudio);
+        });
+
+        //記錄監控資料
+        DialogMetrics.track(getClass(), dialog, startTime);
+
+        return dialog;
+    }
+
+    /**
+     * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行，如果要取得對話框物件的參考需使用createDialog方法。
+     *
+     * @return 傳回使用者輸入的日期，如果沒有輸入，回傳null
+     */
+    public LocalDate showAndWait() {
+        final Dialog<LocalDate> dialog = createDialog();
+        final Optional<LocalDate> valueOpt = dialog.showAndWait();
+        if (valueOpt.isPresent()) {
+            return valueOpt.get();
+        }
+        return null;
+    }
+
+    /**
+     * 判斷日期是否在範圍內。
+     *
+     * @param epochDay 傳入日期自西元1970年1月1日起的天數，若為TypedInput.INVALID表示沒有輸入
+     * @param minDay 傳入最早的日期
+     * @param maxDay 傳入最晚的日期
+     * @return 傳回日期是否在範圍內
+     */
+    private static boolean isInRange(final long epochDay, final long minDay, final long maxDay) {
+        return epochDay != TypedInput.INVALID && epochDay >= minDay && epochDay <= maxDay;
+    }
+
+    /**
+     * 設定擁有對話框的Window。對話框設定只會弱參考這個Window，因此長期保存的對話框設定不會讓已關閉的Window無法被回收。
+     *
+     * @param owner 傳入擁有對話框的Window
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs owner(final Window owner) {
+        this.owner = owner == null ? null : new WeakReference<>(owner);
+        return this;
+    }
+
+    /**
+     * 設定對話框的標題。
+     *
+     * @param title 傳入對話框的標題
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs title(final String title) {
+        this.title = title;
+        return this;
+    }
+
+    /**
+     * 設定對話框的訊息。
+     *
+     * @param message 傳入對話框的訊息
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs message(final String message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * 設定對話框的訊息標題。
+     *
+     * @param header 傳入對話框的訊息標題
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs header(final String header) {
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * 設定輸入方塊的預設值。
+     *
+     * @param value 傳入輸入方塊的預設值，年份必須介於0到9999之間
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs value(final LocalDate value) {
+        if (value != null && (value.getYear() < 0 || value.getYear() > 9999)) {
+            throw new IllegalArgumentException("The year must be between 0 and 9999.");
+        }
+        this.value = value;
+        return this;
+    }
+
+    /**
+     * 設定可以輸入的日期範圍。超出範圍時確定按鈕會被停用，日曆中也無法選擇範圍外的日期。
+     *
+     * @param min 傳入最早的日期，若為null則沒有限制
+     * @param max 傳入最晚的日期，若為null則沒有限制
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs range(final LocalDate min, final LocalDate max) {
+        this.min = min;
+        this.max = max;
+        return this;
+    }
+
+    /**
+     * 設定對話框的字體大小。
+     *
+     * @param fontSize 傳入對話框的字體大小
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs fontSize(final double fontSize) {
+        this.fontSize = fontSize;
+        return this;
+    }
+
+    /**
+     * 設定對話框的字體樣式。
+     *
+     * @param fontFamily 傳入對話框的字體樣式
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs fontFamily(final String fontFamily) {
+        this.fontFamily = fontFamily;
+        return this;
+    }
+
+    /**
+     * 設定對話框的音效，音效將在使用show或是showAndWait方法時播放出來。
+     *
+     * @param audio 傳入對話框的音效
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs audio(final DialogAudio audio) {
+        if (audio == null) {
+            this.audio = DialogAudio.NONE;
+        } else {
+            this.audio = audio;
+        }
+        return this;
+    }
+
+    /**
+     * 設定對話框的圖片。
+     *
+     * @param graphic 傳入對話框的圖片，若為null則使用預設的did.png圖片
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs graphic(final DialogGraphic graphic) {
+        this.graphic = graphic;
+        return this;
+    }
+
+    /**
+     * 設定對話框的逾時時間。對話框顯示超過逾時時間使用者仍未回應時，將自動按下指定的按鈕並關閉對話框。若按下的是確定按鈕，必須已經有完整的輸入，否則按鈕會被停用而直接關閉對話框。
+     *
+     * @param timeout 傳入逾時時間，若為null則不會逾時
+     * @param defaultAnswer 傳入逾時時要按下的按鈕，若對話框沒有這個按鈕或是這個按鈕被停用(例如輸入尚未通過驗證)，則以取消按鈕關閉對話框，沒有取消按鈕時以這個按鈕作為結果關閉對話框
+     * @return 再把對話框設定傳回
+     */
+    public DateInputDialogs timeout(final Duration timeout, final ButtonType defaultAnswer) {
+        this.timeout = timeout;
+        this.timeoutAnswer = defaultAnswer;
+        return this;
+    }
+
+    /**
+     * 複製對話框設定。
+     *
+     * @return 傳回設定值一樣但是為不同物件的對話框設定
+     */
+    @Override
+    public Object clone() {
+        final DateInputDialogs dialogs = DateInputDialogs.create();
+        dialogs.audio(audio).graphic(graphic).fontSize(fontSize).fontFamily(fontFamily).owner(getOwner()).message(message).header(header).title(title).value(value).range(min, max).timeout(timeout, timeoutAnswer);
+        return dialogs;
+    }
+
+    /**
+     * 取得擁有對話框的Window。
+     *
+     * @return 傳回擁有對話框的Window，若沒有設定或是已被回收，回傳null
+     */
+    private Window getOwner() {
+        return owner == null ? null : owner.get();
+    }
+
+    /**
+     * 取得實際要播放的音效。
+     *
+     * @return 傳回實際要播放的音效
+     */
+    private DialogAudio getActuallyAudio() {
+        DialogAudio actuallyAudio = audio;
+        if (audio == DialogAudio.DEFAULT) {
+            actuallyAudio = DialogAudio.SLUMP;
+        }
+        return actuallyAudio;
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.Optional;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextFormatter;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.text.Font;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * 十進位數值輸入對話框設定類別，若要建立出對話框必須使用create方法。輸入方塊只接受十進位數值，每次編輯只會檢查加入的文字，只有在加入小數點時才會尋找原本的文字中是否已有小數點。確定按鈕是否可用只需要檢查開頭的兩個字元，確定後才會轉換成BigDecimal。
+ *
+ * @author Magic Len
+ */
+public class DecimalInputDialogs implements Cloneable {
+
+    // -----類別介面-----
+    // -----類別列舉-----
+    // -----類別常數-----
+    private static final Font DEFAULT_FONT = Font.getDefault();
+    private static final double FONT_SIZE = DEFAULT_FONT.getSize();
+    private static final String FONT_FAMILY = Font.getDefault().getFamily();
+    private static final DialogGraphic DEFAULT_GRAPHIC = DialogGraphic.image("/org/magiclen/magicdialog/did.png");
+
+    // -----類別方法-----
+    /**
+     * 建立對話框的設定檔。
+     *
+     * @return 傳回新的對話框設定
+     */
+    public static DecimalInputDialogs create() {
+        return new DecimalInputDialogs();
+    }
+
+    // -----物件變數-----
+    private WeakReference<Window> owner;
+    private String title = "Title";
+    private String message = null;
+    private String header = null;
+    private String text = null;
+    private boolean negative = true;
+    private double fontSize = FONT_SIZE;
+    private String fontFamily = FONT_FAMILY;
+    private DialogAudio audio = DialogAudio.DEFAULT;
+    private DialogGraphic graphic = null;
+    private Duration timeout = null;
+    private ButtonType timeoutAnswer = null;
+
+    // -----建構子-----
+    /**
+     * 建構子，設為private，無法提供其他類別實體化。
+     */
+    private DecimalInputDialogs() {
+
+    }
+
+    // -----物件方法-----
+    /**
+     * 更改文字大小。
+     *
+     * @param font 傳入字型
+     * @param pane 傳入容器
+     */
+    private void changeFontSize(final Font font, final Pane pane) {
+        pane.getChildren().stream().forEach(node -> {
+            if (node instanceof Pane) {
+                changeFontSize(font, (Pane) node);
+            } else if (node instanceof Labeled) {
+                ((Labeled) node).setFont(font);
+            } else if (node instanceof TextField) {
+                ((TextField) node).setFont(font);
+            } else if (node instanceof ButtonBar) {
+                ((ButtonBar) node).getButtons().stream().filter(insideNode -> insideNode instanceof Button).forEach(insideNode -> {
+                    final Button button = (Button) insideNode;
+                    button.setFont(font);
+                });
+            }
+        });
+    }
+
+    /**
+     * 建立對話框。
+     *
+     * @return 傳回對話框
+     */
+    public Dialog<BigDecimal> createDialog() {
+        final long startTime = System.nanoTime();
+        final Font font = new Font(fontFamily, fontSize);
+
+        final Dialog<BigDecimal> dialog = new Dialog<>();
+        dialog.initOwner(getOwner());
+        dialog.setTitle(title);
+        dialog.setHeaderText(header);
+        dialog.setGraphic((graphic != null ? graphic : DEFAULT_GRAPHIC).createNode(getOwner()));
+
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        final GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 20, 10, 10));
+
+        final TextField input = new TextField();
+        input.setTextFormatter(new TextFormatter<>(TypedInput.decimalFilter(negative)));
+        input.setText(text);
+        input.setMaxWidth(Integer.MAX_VALUE);
+
+        grid.add(new Label(message), 0, 0);
+        grid.add(input, 1, 0);
+
+        dialog.getDialogPane().setContent(grid);
+
+        input.requestFocus();
+
+        //只有完整的輸入才能按下確定按鈕
+        final Node okButton = dialog.getDialogPane().lookupButton(ButtonType.OK);
+        okButton.setDisable(!(TypedInput.isCompleteDecimal(input.getText())));
+        input.textProperty().addListener((observable, oldValue, newValue) -> {
+            okButton.setDisable(!(TypedInput.isCompleteDecimal(input.getText())));
+        });
+
+        dialog.setResultConverter(dialogButton -> {
+            if (dialogButton == ButtonType.OK) {
+                return new BigDecimal(input.getText());
+            }
+            return null;
+        });
+
+        //設定標籤文字大小與高度
+        changeFontSize(font, dialog.getDialogPane());
+
+        //逾時自動回應
+        DialogTimeouts.install(dialog, timeout, timeoutAnswer);
+
+        //加入音效
+        final DialogAudio actuallyAudio = getActuallyAudio();
+        dialog.setOnShown(e -> {
+            DialogAudio.playAudio(actuallyAudio);
+        });
+
+        //記錄監控資料
+        DialogMetrics.track(getClass(), dialog, startTime);
+
+        return dialog;
+    }
+
+    /**
+     * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行，如果要取得對話框物件的參考需使用createDialog方法。
+     *
+     * @return 傳回使用者輸入的數值，如果沒有輸入，回傳null
+     */
+    public BigDecimal showAndWait() {
+        final Dialog<BigDecimal> dialog = createDialog();
+        final Optional<BigDecimal> valueOpt = dialog.showAndWait();
+        if (valueOpt.isPresent()) {
+            return valueOpt.get();
+        }
+        return null;
+    }
+
+    /**
+     * 設定擁有對話框的Window。對話框設定只會弱參考這個Window，因此長期保存的對話框設定不會讓已關閉的Window無法被回收。
+     *
+     * @param owner 傳入擁有對話框的Window
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs owner(final Window owner) {
+        this.owner = owner == null ? null : new WeakReference<>(owner);
+        return this;
+    }
+
+    /**
+     * 設定對話框的標題。
+     *
+     * @param title 傳入對話框的標題
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs title(final String title) {
+        this.title = title;
+        return this;
+    }
+
+    /**
+     * 設定對話框的訊息。
+     *
+     * @param message 傳入對話框的訊息
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs message(final String message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * 設定對話框的訊息標題。
+     *
+     * @param header 傳入對話框的訊息標題
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs header(final String header) {
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * 設定輸入方塊的預設值。
+     *
+     * @param value 傳入輸入方塊的預設值，若不能輸入負數，則不能是負數
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs value(final BigDecimal value) {
+        if (value != null && !negative && value.signum() < 0) {
+            throw new IllegalArgumentException("The value cannot be negative.");
+        }
+        this.text = value == null ? null : value.toPlainString();
+        return this;
+    }
+
+    /**
+     * 設定是否可以輸入負數。若不能輸入負數，已經設定的預設值不能是負數。
+     *
+     * @param negative 傳入是否可以輸入負數
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs negative(final boolean negative) {
+        if (!negative && text != null && text.startsWith("-")) {
+            throw new IllegalArgumentException("The value cannot be negative.");
+        }
+        this.negative = negative;
+        return this;
+    }
+
+    /**
+     * 設定對話框的字體大小。
+     *
+     * @param fontSize 傳入對話框的字體大小
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs fontSize(final double fontSize) {
+        this.fontSize = fontSize;
+        return this;
+    }
+
+    /**
+     * 設定對話框的字體樣式。
+     *
+     * @param fontFamily 傳入對話框的字體樣式
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs fontFamily(final String fontFamily) {
+        this.fontFamily = fontFamily;
+        return this;
+    }
+
+    /**
+     * 設定對話框的音效，音效將在使用show或是showAndWait方法時播放出來。
+     *
+     * @param audio 傳入對話框的音效
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs audio(final DialogAudio audio) {
+        if (audio == null) {
+            this.audio = DialogAudio.NONE;
+        } else {
+            this.audio = audio;
+        }
+        return this;
+    }
+
+    /**
+     * 設定對話框的圖片。
+     *
+     * @param graphic 傳入對話框的圖片，若為null則使用預設的did.png圖片
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs graphic(final DialogGraphic graphic) {
+        this.graphic = graphic;
+        return this;
+    }
+
+    /**
+     * 設定對話框的逾時時間。對話框顯示超過逾時時間使用者仍未回應時，將自動按下指定的按鈕並關閉對話框。若按下的是確定按鈕，必須已經有完整的輸入，否則按鈕會被停用而直接關閉對話框。
+     *
+     * @param timeout 傳入逾時時間，若為null則不會逾時
+     * @param defaultAnswer 傳入逾時時要按下的按鈕，若對話框沒有這個按鈕或是這個按鈕被停用(例如輸入尚未通過驗證)，則以取消按鈕關閉對話框，沒有取消按鈕時以這個按鈕作為結果關閉對話框
+     * @return 再把對話框設定傳回
+     */
+    public DecimalInputDialogs timeout(final Duration timeout, final ButtonType defaultAnswer) {
+        this.timeout = timeout;
+        this.timeoutAnswer = defaultAnswer;
+        return this;
+    }
+
+    /**
+     * 複製對話框設定。
+     *
+     * @return 傳回設定值一樣但是為不同物件的對話框設定
+     */
+    @Override
+    public Object clone() {
+        final DecimalInputDialogs dialogs = DecimalInputDialogs.create();
+        dialogs.audio(audio).graphic(graphic).fontSize(fontSize).fontFamily(fontFamily).owner(getOwner()).message(message).header(header).title(title).negative(negative).timeout(timeout, timeoutAnswer);
+        dialogs.text = text;
+        return dialogs;
+    }
+
+    /**
+     * 取得擁有對話框的Window。
+     *
+     * @return 傳回擁有對話框的Window，若沒有設定或是已被回收，回傳null
+     */
+    private Window getOwner() {
+        return owner == null ? null : owner.get();
+    }
+
+    /**
+     * 取得實際要播放的音效。
+     *
+     * @return 傳回實際要播放的音效
+     */
+    private DialogAudio getActuallyAudio() {
+        DialogAudio actuallyAudio = audio;
+        if (audio == DialogAudio.DEFAULT) {
+            actuallyAudio = DialogAudio.SLUMP;
+        }
+        return actuallyAudio;
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 記住使用者在對話框中選擇「不要再問」的決定。決定會以附加的方式寫入一個精簡的檔案，第一次使用時一次載入到記憶體中，記錄過多時才會重新整理檔案。
+ *
+ * @author Magic Len
+ */
+public final class DecisionStore {
+
+    // -----類別常數-----
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_REMOVE = 2;
+    private static final int COMPACT_THRESHOLD = 256;
+
+    // -----類別變數-----
+    private static Path path = Paths.get(System.getProperty("user.home"), ".magicdialog", "decisions");
+    private static Map<String, String> decisions;
+    private static int recordCount;
+
+    // -----類別方法-----
+    /**
+     * 設定儲存決定的檔案。更換檔案後，下次使用時會重新載入。
+     *
+     * @param path 傳入儲存決定的檔案
+     */
+    public static synchronized void setPath(final Path path) {
+        if (path == null) {
+            throw new NullPointerException("The path cannot be null.");
+        }
+        DecisionStore.path = path;
+        decisions = null;
+    }
+
+    /**
+     * 取得儲存決定的檔案。
+     *
+     * @return 傳回儲存決定的檔案
+     */
+    public static synchronized Path getPath() {
+        return path;
+    }
+
+    /**
+     * 取得記住的決定。
+     *
+     * @param key 傳入決定的名稱
+     * @return 傳回記住的決定，若沒有則回傳null
+     */
+    public static synchronized String get(final String key) {
+        return load().get(key);
+    }
+
+    /**
+     * 記住一個決定。以UTF-8編碼後超過65535個位元組的名稱或決定無法儲存，將不會被記住。
+     *
+     * @param key 傳入決定的名稱
+     * @param value 傳入決定
+     */
+    public static synchronized void put(final String key, final String value) {
+        if (key == null || value == null) {
+            return;
+        }
+        //先將整筆記錄編碼，編碼失敗時不會記住，也不會在檔案中留下不完整的記錄
+        final byte[] record = encodeRecord(RECORD_PUT, key, value);
+        if (record == null || value.equals(load().put(key, value))) {
+            return;
+        }
+        append(record);
+    }
+
+    /**
+     * 忘記一個決定，下次將會再顯示對話框。
+     *
+     * @param key 傳入決定的名稱
+     */
+    public static synchronized void forget(final String key) {
+        if (load().remove(key) != null) {
+            append(encodeRecord(RECORD_REMOVE, key, null));
+        }
+    }
+
+    /**
+     * 忘記所有的決定。
+     */
+    public static synchronized void clear() {
+        load().clear();
+        compact();
+    }
+
+    /**
+     * 載入所有的決定，只會在第一次使用時讀取檔案。
+     *
+     * @return 傳回所有的決定
+     */
+    private static Map<String, String> load() {
+        if (decisions != null) {
+            return decisions;
+        }
+        decisions = new HashMap<>();
+        recordCount = 0;
+        if (!Files.exists(path)) {
+            return decisions;
+        }
+        boolean damaged = false;
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                final int type = in.read();
+                if (type < 0) {
+                    break;
+                }
+                if (type == RECORD_PUT) {
+                    final String key = in.readUTF();
+                    decisions.put(key, in.readUTF());
+                } else if (type == RECORD_REMOVE) {
+                    decisions.remove(in.readUTF());
+                } else {
+                    //不認得的記錄表示檔案已損毀，之後的內容都無法正確解讀
+                    report("Unknown record in ".concat(path.toString()), null);
+                    damaged = true;
+                    break;
+                }
+                ++recordCount;
+            }
+        } catch (final EOFException ex) {
+            //最後一筆記錄不完整，可能是寫入時程式被中斷
+            damaged = true;
+        } catch (final IOException ex) {
+            report("Cannot load decisions from ".concat(path.toString()), ex);
+            return decisions;
+        }
+        if (damaged) {
+            //重新整理檔案，避免之後附加的記錄接在損毀的內容後面而無法讀取
+            compact();
+        }
+        return decisions;
+    }
+
+    /**
+     * 在檔案結尾附加一筆記錄，記錄過多時重新整理檔案。
+     *
+     * @param record 傳入編碼後的記錄
+     */
+    private static void append(final byte[] record) {
+        try {
+            final Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(path, record, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            ++recordCount;
+        } catch (final IOException ex) {
+            report("Cannot save decisions to ".concat(path.toString()), ex);
+            return;
+        }
+        if (recordCount > Math.max(COMPACT_THRESHOLD, decisions.size() * 2)) {
+            compact();
+        }
+    }
+
+    /**
+     * 重新整理檔案，只保留目前有效的決定。
+     */
+    private static void compact() {
+        final Path absolutePath = path.toAbsolutePath();
+        final Path temp = absolutePath.resolveSibling(absolutePath.getFileName().toString().concat(".tmp"));
+        try {
+            final Path parent = absolutePath.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                for (final Map.Entry<String, String> entry : decisions.entrySet()) {
+                    writeRecord(out, RECORD_PUT, entry.getKey(), entry.getValue());
+                }
+            }
+            Files.move(temp, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            recordCount = decisions.size();
+        } catch (final IOException ex) {
+            report("Cannot compact ".concat(absolutePath.toString()), ex);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (final IOException deleteException) {
+                //無法刪除時保留暫存檔，下次整理時會被覆蓋
+            }
+        }
+    }
+
+    /**
+     * 將一筆記錄編碼成位元組。
+     *
+     * @param type 傳入記錄的類型
+     * @param key 傳入決定的名稱
+     * @param value 傳入決定
+     * @return 傳回編碼後的記錄，若決定的名稱或是決定超過65535個位元組，回傳null
+     */
+    private static byte[] encodeRecord(final byte type, final String key, final String value) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            writeRecord(out, type, key, value);
+        } catch (final IOException ex) {
+            report("Cannot save the decision ".concat(key), ex);
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 回報讀寫檔案時發生的錯誤。決定仍會保留在記憶體中，只是無法在下次執行時使用。
+     *
+     * @param description 傳入錯誤的說明
+     * @param ex 傳入例外，若為null則只顯示說明
+     */
+    private static void report(final String description, final IOException ex) {
+        System.err.println("[MagicDialog] ".concat(description));
+        if (ex != null) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * 寫入一筆記錄。
+     *
+     * @param out 傳入輸出串流
+     * @param type 傳入記錄的類型
+     * @param key 傳入決定的名稱
+     * @param value 傳入決定
+     * @throws IOException 寫入時發生錯誤
+     */
+    private static void writeRecord(final DataOutputStream out, final byte type, final String key, final String value) throws IOException {
+        out.writeByte(type);
+        out.writeUTF(key);
+        if (type == RECORD_PUT) {
+            out.writeUTF(value);
+        }
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private DecisionStore() {
+
+    }
+}
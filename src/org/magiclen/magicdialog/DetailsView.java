@@ -0,0 +1,221 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.DialogPane;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.StackPane;
+import javafx.scene.text.Font;
+
+/**
+ * 對話框可展開的詳細內容。內容只有在第一次展開時才會開始讀取，行索引在背景執行緒上建立，清單只會轉換顯示中的行，因此即使是數百MB的文字也能立即顯示。
+ *
+ * @author Magic Len
+ */
+final class DetailsView {
+
+    // -----類別常數-----
+    private static final long PROGRESS_INTERVAL = 100;
+    private static final double WIDTH = 640;
+    private static final double HEIGHT = 320;
+
+    // -----類別方法-----
+    /**
+     * 讓對話框有可展開的詳細內容。
+     *
+     * @param dialog 傳入對話框
+     * @param source 傳入建立行索引的方法，會在背景執行緒上執行，若為null則沒有詳細內容
+     * @param font 傳入字型
+     */
+    static void install(final Dialog<?> dialog, final Callable<LineIndex> source, final Font font) {
+        if (source == null) {
+            return;
+        }
+        final DialogPane dialogPane = dialog.getDialogPane();
+
+        final Label lStatus = new Label("Loading...");
+        lStatus.setFont(font);
+        final StackPane spContent = new StackPane(lStatus);
+        spContent.setPrefSize(WIDTH, HEIGHT);
+        dialogPane.setExpandableContent(spContent);
+
+        final LineList[] lines = new LineList[1];
+        final Runnable load = () -> {
+            if (lines[0] == null) {
+                lines[0] = new LineList(source);
+                final ListView<String> lvLines = new ListView<>(lines[0]);
+                lvLines.setFixedCellSize(Math.ceil(font.getSize() * 1.6));
+                lvLines.setStyle(String.format("-fx-font-family: \"%s\"; -fx-font-size: %fpx;", font.getFamily(), font.getSize()));
+                lvLines.setPlaceholder(lStatus);
+                spContent.getChildren().setAll(lvLines);
+                lines[0].start(lStatus);
+            }
+        };
+        dialogPane.expandedProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                load.run();
+            }
+        });
+        dialog.showingProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                //再次顯示時若詳細內容已展開，不會觸發展開的事件，因此直接開始讀取
+                if (dialogPane.isExpanded()) {
+                    load.run();
+                }
+            } else if (lines[0] != null) {
+                lines[0].cancel();
+                //沒有讀取完的清單會停在一部分的內容，下次展開時重新讀取
+                if (!lines[0].isComplete()) {
+                    lines[0] = null;
+                    lStatus.setText("Loading...");
+                    spContent.getChildren().setAll(lStatus);
+                }
+            }
+        });
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private DetailsView() {
+
+    }
+
+    // -----內部類別-----
+    /**
+     * 以行索引為內容的清單。清單的大小會隨著索引的建立而增加，每一行只有在被清單讀取時才會轉換成字串。此類別只在JavaFX的應用程式執行緒上使用。
+     */
+    static final class LineList extends ObservableListBase<String> {
+
+        // -----物件常數-----
+        private final Callable<LineIndex> source;
+        private final AtomicBoolean publishing = new AtomicBoolean();
+
+        // -----物件變數-----
+        private volatile LineIndex index;
+        private BackgroundTask<LineIndex> task;
+        private int size;
+
+        // -----建構子-----
+        /**
+         * 建構子。
+         *
+         * @param source 傳入建立行索引的方法
+         */
+        LineList(final Callable<LineIndex> source) {
+            this.source = source;
+        }
+
+        // -----物件方法-----
+        /**
+         * 開始在背景執行緒上建立行索引。
+         *
+         * @param lStatus 傳入顯示狀態的標籤
+         */
+        void start(final Label lStatus) {
+            task = new BackgroundTask<>(() -> {
+                final LineIndex lineIndex = source.call();
+                index = lineIndex;
+                lineIndex.build(this::requestPublish, PROGRESS_INTERVAL);
+                return lineIndex;
+            });
+            task.getFuture().whenComplete((lineIndex, ex) -> {
+                if (ex instanceof CancellationException) {
+                    return;
+                }
+                Platform.runLater(() -> {
+                    if (ex != null) {
+                        lStatus.setText(ex.getMessage() != null ? ex.getMessage() : ex.toString());
+                    } else if (lineIndex.getLineCount() == 0) {
+                        lStatus.setText("No details.");
+                    }
+                });
+            });
+            DialogThreads.BACKGROUND.execute(task);
+        }
+
+        /**
+         * 判斷行索引是否已經建立完成。
+         *
+         * @return 傳回行索引是否已經成功建立完成
+         */
+        boolean isComplete() {
+            return task != null && task.getFuture().isDone() && !task.getFuture().isCompletedExceptionally();
+        }
+
+        /**
+         * 停止建立行索引。
+         */
+        void cancel() {
+            if (task != null) {
+                task.cancel();
+            }
+        }
+
+        /**
+         * 在應用程式執行緒上更新清單的大小。若前一次的更新還沒執行，則不再重複排程。
+         */
+        private void requestPublish() {
+            if (!publishing.compareAndSet(false, true)) {
+                return;
+            }
+            Platform.runLater(() -> {
+                publishing.set(false);
+                publish();
+            });
+        }
+
+        /**
+         * 將新索引的行加入清單。
+         */
+        private void publish() {
+            final LineIndex lineIndex = index;
+            if (lineIndex == null) {
+                return;
+            }
+            final int newSize = lineIndex.getLineCount();
+            if (newSize > size) {
+                beginChange();
+                nextAdd(size, newSize);
+                size = newSize;
+                endChange();
+            }
+        }
+
+        @Override
+        public String get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+            }
+            return this.index.line(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.magiclen.magicdialog;
 
 import java.util.Objects;
 import org.magiclen.magicaudioplayer.AudioPlayer;
+import org.magiclen.magicdialog.jfr.DialogEvents;
 
 /**
  * 對話框的聲音類別。
@@ -67,11 +68,17 @@ public final class DialogAudio {
                 audioFileName = audioName.concat(".wav");
                 break;
         }
+        final long startTime = System.nanoTime();
         try {
             final AudioPlayer ap = AudioPlayer.createPlayer(audio.getClass().getResource("/org/magiclen/magicdialog/".concat(audioFileName)));
             ap.setAutoClose(true);
             ap.play();
+            final long loadTime = System.nanoTime() - startTime;
+            DialogMetrics.recordSound(loadTime);
+            DialogEvents.audioPlayed(audioFileName, loadTime, false, true);
         } catch (final Exception ex) {
+            DialogMetrics.recordAudioFailure();
+            DialogEvents.audioPlayed(audioFileName, System.nanoTime() - startTime, false, false);
         }
     }
 
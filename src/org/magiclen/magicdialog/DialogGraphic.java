@@ -0,0 +1,232 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.SVGPath;
+import javafx.stage.Screen;
+import javafx.stage.Window;
+
+/**
+ * 對話框的圖片類別。圖片可以來自類別路徑中的資源、檔案路徑、網址或是SVG路徑，點陣圖片會透過共用的快取解碼，因此同樣的圖片不論用在多少個對話框中都只會解碼一次。
+ *
+ * @author Magic Len
+ */
+public final class DialogGraphic {
+
+    // -----類別常數-----
+    private static final double SVG_SIZE = 48;
+    private static final Paint SVG_FILL = Color.web("#4a4a4a");
+    /**
+     * Window的getOutputScaleX方法，JavaFX 9之後才有，在JavaFX 8下為null。
+     */
+    private static final Method WINDOW_OUTPUT_SCALE = findOutputScaleMethod(Window.class);
+    /**
+     * Screen的getOutputScaleX方法，JavaFX 9之後才有，在JavaFX 8下為null。
+     */
+    private static final Method SCREEN_OUTPUT_SCALE = findOutputScaleMethod(Screen.class);
+
+    // -----類別方法-----
+    /**
+     * 建立使用點陣圖片的對話框圖片，圖片將以原本的大小顯示。
+     *
+     * @param location 傳入圖片的位置，可以是類別路徑中的資源(以「/」開頭)、檔案路徑或是網址
+     * @return 傳回對話框圖片
+     */
+    public static DialogGraphic image(final String location) {
+        return image(location, 0);
+    }
+
+    /**
+     * 建立使用點陣圖片的對話框圖片。
+     *
+     * @param location 傳入圖片的位置，可以是類別路徑中的資源(以「/」開頭)、檔案路徑或是網址
+     * @param size 傳入圖片顯示的大小，若小於等於0則使用圖片原本的大小
+     * @return 傳回對話框圖片
+     */
+    public static DialogGraphic image(final String location, final double size) {
+        if (location == null) {
+            throw new NullPointerException("The location cannot be null.");
+        }
+        return new DialogGraphic(resolve(location), null, size, null);
+    }
+
+    /**
+     * 建立使用SVG路徑的對話框圖片，大小為48像素。
+     *
+     * @param content 傳入SVG路徑
+     * @return 傳回對話框圖片
+     */
+    public static DialogGraphic svg(final String content) {
+        return svg(content, SVG_SIZE, SVG_FILL);
+    }
+
+    /**
+     * 建立使用SVG路徑的對話框圖片。
+     *
+     * @param content 傳入SVG路徑
+     * @param size 傳入圖片顯示的大小
+     * @param fill 傳入填滿的顏色，若為null則使用預設的顏色
+     * @return 傳回對話框圖片
+     */
+    public static DialogGraphic svg(final String content, final double size, final Paint fill) {
+        if (content == null) {
+            throw new NullPointerException("The content cannot be null.");
+        }
+        return new DialogGraphic(null, content, size > 0 ? size : SVG_SIZE, fill == null ? SVG_FILL : fill);
+    }
+
+    /**
+     * 尋找類別的getOutputScaleX方法。
+     *
+     * @param c 傳入類別
+     * @return 傳回方法，若不存在(JavaFX 8)則回傳null
+     */
+    private static Method findOutputScaleMethod(final Class<?> c) {
+        try {
+            return c.getMethod("getOutputScaleX");
+        } catch (final Exception ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 取得擁有者所在螢幕的輸出縮放比例。JavaFX 8沒有提供輸出縮放比例，此時一律視為1。
+     *
+     * @param owner 傳入擁有對話框的Window，若為null則使用主螢幕的縮放比例
+     * @return 傳回輸出縮放比例
+     */
+    private static double getOutputScale(final Window owner) {
+        try {
+            if (owner != null) {
+                if (WINDOW_OUTPUT_SCALE != null) {
+                    return (Double) WINDOW_OUTPUT_SCALE.invoke(owner);
+                }
+            } else if (SCREEN_OUTPUT_SCALE != null) {
+                return (Double) SCREEN_OUTPUT_SCALE.invoke(Screen.getPrimary());
+            }
+        } catch (final Exception ex) {
+            //無法取得縮放比例
+        }
+        return 1;
+    }
+
+    /**
+     * 將圖片的位置轉成網址。
+     *
+     * @param location 傳入圖片的位置
+     * @return 傳回網址
+     */
+    private static String resolve(final String location) {
+        if (location.startsWith("/")) {
+            final URL resource = DialogGraphic.class.getResource(location);
+            if (resource != null) {
+                return resource.toString();
+            }
+        }
+        try {
+            final Path path = Paths.get(location);
+            if (Files.isRegularFile(path)) {
+                return path.toUri().toString();
+            }
+        } catch (final Exception ex) {
+            //不是檔案路徑
+        }
+        return location;
+    }
+
+    // -----物件常數-----
+    private final String url;
+    private final String svgContent;
+    private final double size;
+    private final Paint fill;
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被外部實體化。
+     */
+    private DialogGraphic(final String url, final String svgContent, final double size, final Paint fill) {
+        this.url = url;
+        this.svgContent = svgContent;
+        this.size = size;
+        this.fill = fill;
+    }
+
+    // -----物件方法-----
+    /**
+     * 建立顯示圖片的節點。點陣圖片會依照擁有者所在螢幕的輸出縮放比例解碼，在高解析度螢幕上也能清楚顯示。在JavaFX 8下則以原本的大小解碼。
+     *
+     * @param owner 傳入擁有對話框的Window，若為null則使用主螢幕的縮放比例
+     * @return 傳回節點
+     */
+    Node createNode(final Window owner) {
+        if (svgContent != null) {
+            final SVGPath svgPath = new SVGPath();
+            svgPath.setContent(svgContent);
+            svgPath.setFill(fill);
+            final double width = svgPath.getLayoutBounds().getWidth();
+            final double height = svgPath.getLayoutBounds().getHeight();
+            final double max = Math.max(width, height);
+            if (max > 0) {
+                final double scale = size / max;
+                svgPath.setScaleX(scale);
+                svgPath.setScaleY(scale);
+            }
+            //Group會以縮放後的大小排版
+            return new Group(svgPath);
+        }
+        final ImageView imageView = new ImageView(ImageCache.get(url, size, getOutputScale(owner)));
+        if (size > 0) {
+            imageView.setFitWidth(size);
+            imageView.setFitHeight(size);
+            imageView.setPreserveRatio(true);
+            imageView.setSmooth(true);
+        }
+        return imageView;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(url, svgContent, size, fill);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final DialogGraphic other = (DialogGraphic) obj;
+        return size == other.size && Objects.equals(url, other.url) && Objects.equals(svgContent, other.svgContent) && Objects.equals(fill, other.fill);
+    }
+}
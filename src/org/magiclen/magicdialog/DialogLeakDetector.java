@@ -0,0 +1,203 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.application.Platform;
+import javafx.scene.control.Dialog;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+
+/**
+ * 對話框的洩漏偵測器。所有對話框設定類別建立出的對話框都會以弱參考記錄在這裡。啟用偵測後，對話框隱藏一段時間後若對話框本身，或是已經關閉的擁有者視窗仍然無法被回收，就會回報洩漏與對話框被建立的位置。偵測時會要求執行GC，因此只適合在開發與測試時使用。
+ *
+ * @author Magic Len
+ */
+public final class DialogLeakDetector {
+
+    // -----類別介面-----
+    /**
+     * 發現洩漏時的處理方式。
+     */
+    public static interface LeakHandler {
+
+        /**
+         * 發現洩漏。
+         *
+         * @param description 傳入洩漏的描述
+         * @param creation 傳入對話框被建立的位置
+         */
+        public void onLeak(final String description, final Throwable creation);
+    }
+
+    // -----內部類別-----
+    /**
+     * 記錄中的對話框。
+     */
+    private static final class Entry extends WeakReference<Object> {
+
+        private final String builder;
+        private final Throwable creation;
+        private final WeakReference<Window> owner;
+
+        Entry(final Object dialog, final String builder, final Throwable creation, final Window owner) {
+            super(dialog, QUEUE);
+            this.builder = builder;
+            this.creation = creation;
+            this.owner = owner == null ? null : new WeakReference<>(owner);
+        }
+    }
+
+    // -----類別常數-----
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+    private static final Set<Entry> REGISTRY = ConcurrentHashMap.newKeySet();
+    private static final LeakHandler DEFAULT_HANDLER = (description, creation) -> {
+        System.err.println("[MagicDialog] ".concat(description));
+        creation.printStackTrace();
+    };
+
+    // -----類別變數-----
+    private static volatile long delay = -1;
+    private static volatile LeakHandler handler = DEFAULT_HANDLER;
+
+    // -----類別方法-----
+    /**
+     * 啟用洩漏偵測，發現洩漏時輸出到標準錯誤輸出。只有在啟用之後建立的對話框才會被偵測。
+     *
+     * @param delay 傳入對話框隱藏後多久檢查一次，單位為毫秒
+     */
+    public static void enable(final long delay) {
+        enable(delay, DEFAULT_HANDLER);
+    }
+
+    /**
+     * 啟用洩漏偵測。只有在啟用之後建立的對話框才會被偵測。
+     *
+     * @param delay 傳入對話框隱藏後多久檢查一次，單位為毫秒
+     * @param handler 傳入發現洩漏時的處理方式，若為null則輸出到標準錯誤輸出
+     */
+    public static void enable(final long delay, final LeakHandler handler) {
+        DialogLeakDetector.handler = handler == null ? DEFAULT_HANDLER : handler;
+        DialogLeakDetector.delay = Math.max(0, delay);
+    }
+
+    /**
+     * 停用洩漏偵測。
+     */
+    public static void disable() {
+        delay = -1;
+    }
+
+    /**
+     * 判斷是否有啟用洩漏偵測。
+     *
+     * @return 傳回是否有啟用洩漏偵測
+     */
+    public static boolean isEnabled() {
+        return delay >= 0;
+    }
+
+    /**
+     * 取得目前還無法被回收的對話框數量。
+     *
+     * @return 傳回無法被回收的對話框數量
+     */
+    public static int getLiveCount() {
+        expunge();
+        return REGISTRY.size();
+    }
+
+    /**
+     * 記錄對話框，並在對話框隱藏後檢查洩漏。
+     *
+     * @param builder 傳入對話框設定類別的名稱
+     * @param dialog 傳入對話框
+     * @param window 傳入對話框的視窗
+     */
+    static void track(final String builder, final Object dialog, final Window window) {
+        expunge();
+        final Window owner = window instanceof Stage ? ((Stage) window).getOwner() : null;
+        final Entry entry = new Entry(dialog, builder, isEnabled() ? new Throwable("The dialog was created here.") : null, owner);
+        REGISTRY.add(entry);
+        if (window != null && entry.creation != null) {
+            window.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> {
+                final long checkDelay = delay;
+                if (checkDelay >= 0) {
+                    TimerWheel.getInstance().schedule(() -> DialogThreads.BACKGROUND.execute(() -> check(entry, checkDelay)), checkDelay);
+                }
+            });
+        }
+    }
+
+    /**
+     * 執行GC後檢查對話框與擁有者視窗是否還無法被回收。
+     *
+     * @param entry 傳入記錄中的對話框
+     * @param checkDelay 傳入對話框隱藏後經過的時間
+     */
+    private static void check(final Entry entry, final long checkDelay) {
+        System.gc();
+        Platform.runLater(() -> {
+            final Object dialog = entry.get();
+            if (dialog != null && !isShowing(dialog)) {
+                handler.onLeak(String.format("A dialog created by %s is still reachable %d ms after it was hidden.", entry.builder, checkDelay), entry.creation);
+            }
+            final Window owner = entry.owner == null ? null : entry.owner.get();
+            if (owner != null && !owner.isShowing()) {
+                handler.onLeak(String.format("The closed owner window of a dialog created by %s is still reachable %d ms after the dialog was hidden.", entry.builder, checkDelay), entry.creation);
+            }
+        });
+    }
+
+    /**
+     * 判斷對話框是否正在顯示。對話框隱藏後又再次顯示時，不算是洩漏。
+     *
+     * @param dialog 傳入對話框
+     * @return 傳回對話框是否正在顯示
+     */
+    private static boolean isShowing(final Object dialog) {
+        if (dialog instanceof Dialog) {
+            return ((Dialog<?>) dialog).isShowing();
+        } else if (dialog instanceof Window) {
+            return ((Window) dialog).isShowing();
+        }
+        return false;
+    }
+
+    /**
+     * 移除已被回收的對話框。
+     */
+    private static void expunge() {
+        Object reference;
+        while ((reference = QUEUE.poll()) != null) {
+            REGISTRY.remove(reference);
+        }
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private DialogLeakDetector() {
+
+    }
+}
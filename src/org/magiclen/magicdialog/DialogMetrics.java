@@ -0,0 +1,243 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+import javax.management.ObjectName;
+import org.magiclen.magicdialog.jfr.DialogEvents;
+
+/**
+ * 對話框生命週期的監控資料。所有對話框設定類別建立出的對話框與音效都會自動記錄到這裡，第一次使用時會註冊到平台的MBeanServer，因此可以透過JMX讀取。
+ *
+ * @author Magic Len
+ */
+public final class DialogMetrics implements DialogMetricsMXBean {
+
+    // -----類別常數-----
+    /**
+     * 註冊到MBeanServer的名稱。
+     */
+    public static final String OBJECT_NAME = "org.magiclen.magicdialog:type=DialogMetrics";
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    // -----內部類別-----
+    /**
+     * 延遲初始化唯一的監控資料。
+     */
+    private static final class Holder {
+
+        private static final DialogMetrics INSTANCE = register(new DialogMetrics());
+    }
+
+    // -----類別方法-----
+    /**
+     * 取得唯一的監控資料。
+     *
+     * @return 傳回監控資料
+     */
+    public static DialogMetrics getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 將監控資料註冊到平台的MBeanServer。註冊失敗時，監控資料仍然可以使用。
+     *
+     * @param metrics 傳入監控資料
+     * @return 傳回監控資料
+     */
+    private static DialogMetrics register(final DialogMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (final Exception | LinkageError ex) {
+        }
+        return metrics;
+    }
+
+    /**
+     * 記錄對話框的建立時間，並開始追蹤對話框的顯示與回應。有啟用Java Flight Recorder時，也會發出對應的事件。
+     *
+     * @param builder 傳入對話框設定類別
+     * @param dialog 傳入對話框
+     * @param startTime 傳入開始建立對話框時System.nanoTime的值
+     */
+    static void track(final Class<?> builder, final Dialog<?> dialog, final long startTime) {
+        final Scene scene = dialog.getDialogPane().getScene();
+        final String dialogType = dialog instanceof Alert ? ((Alert) dialog).getAlertType().name() : dialog.getClass().getSimpleName();
+        track(builder, scene == null ? null : scene.getWindow(), dialog, dialogType, dialog.getDialogPane().getButtonTypes().size(), startTime);
+    }
+
+    /**
+     * 記錄視窗的建立時間，並開始追蹤視窗的顯示。有啟用Java Flight Recorder時，也會發出對應的事件。
+     *
+     * @param builder 傳入對話框設定類別
+     * @param window 傳入視窗
+     * @param buttonCount 傳入按鈕的數量
+     * @param startTime 傳入開始建立視窗時System.nanoTime的值
+     */
+    static void track(final Class<?> builder, final Window window, final int buttonCount, final long startTime) {
+        track(builder, window, null, window.getClass().getSimpleName(), buttonCount, startTime);
+    }
+
+    /**
+     * 記錄建立時間，並開始追蹤視窗的顯示與對話框的回應。
+     *
+     * @param builder 傳入對話框設定類別
+     * @param window 傳入視窗
+     * @param dialog 傳入對話框，若為null則不記錄回應
+     * @param dialogType 傳入對話框的類型
+     * @param buttonCount 傳入按鈕的數量
+     * @param startTime 傳入開始建立的System.nanoTime的值
+     */
+    private static void track(final Class<?> builder, final Window window, final Dialog<?> dialog, final String dialogType, final int buttonCount, final long startTime) {
+        final DialogMetrics metrics = getInstance();
+        final String builderName = builder.getSimpleName();
+        final long createTime = System.nanoTime() - startTime;
+        metrics.createdCount.increment();
+        metrics.createLatency.record(createTime);
+        DialogEvents.dialogCreated(builderName, dialogType, buttonCount, createTime);
+        DialogLeakDetector.track(builderName, dialog != null ? dialog : window, window);
+        if (window == null) {
+            return;
+        }
+        final long[] times = new long[2]; //開始顯示與完成顯示的時間
+        window.addEventHandler(WindowEvent.WINDOW_SHOWING, e -> {
+            times[0] = System.nanoTime();
+        });
+        window.addEventHandler(WindowEvent.WINDOW_SHOWN, e -> {
+            times[1] = System.nanoTime();
+            final long showTime = times[1] - times[0];
+            metrics.showLatency.record(showTime);
+            metrics.shownCount.increment();
+            metrics.openCount.increment();
+            DialogEvents.dialogShown(builderName, showTime);
+        });
+        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> {
+            metrics.openCount.decrement();
+            if (dialog != null) {
+                final Object result = dialog.getResult();
+                if (result != null) {
+                    final long latency = System.nanoTime() - times[1];
+                    metrics.responseLatency.record(latency);
+                    metrics.answeredCount.increment();
+                    //只有按鈕的文字會被記錄，使用者輸入的內容不會
+                    DialogEvents.dialogAnswered(builderName, result instanceof ButtonType ? ((ButtonType) result).getText() : ButtonType.OK.getText(), latency);
+                }
+            }
+        });
+    }
+
+    /**
+     * 記錄音效開始播放所花的時間。
+     *
+     * @param nanos 傳入所花的時間，單位為奈秒
+     */
+    static void recordSound(final long nanos) {
+        getInstance().soundLatency.record(nanos);
+    }
+
+    /**
+     * 記錄音效播放失敗。
+     */
+    static void recordAudioFailure() {
+        getInstance().audioFailureCount.increment();
+    }
+
+    // -----物件常數-----
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder shownCount = new LongAdder();
+    private final LongAdder answeredCount = new LongAdder();
+    private final LongAdder openCount = new LongAdder();
+    private final LongAdder audioFailureCount = new LongAdder();
+    private final LatencyHistogram createLatency = new LatencyHistogram();
+    private final LatencyHistogram showLatency = new LatencyHistogram();
+    private final LatencyHistogram soundLatency = new LatencyHistogram();
+    private final LatencyHistogram responseLatency = new LatencyHistogram();
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被外部實體化。
+     */
+    private DialogMetrics() {
+
+    }
+
+    // -----物件方法-----
+    @Override
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    @Override
+    public long getShownCount() {
+        return shownCount.sum();
+    }
+
+    @Override
+    public long getAnsweredCount() {
+        return answeredCount.sum();
+    }
+
+    @Override
+    public long getOpenCount() {
+        return openCount.sum();
+    }
+
+    @Override
+    public long getAudioFailureCount() {
+        return audioFailureCount.sum();
+    }
+
+    @Override
+    public LatencyStats getCreateLatency() {
+        return createLatency.snapshot(NANOS_PER_MILLI);
+    }
+
+    @Override
+    public LatencyStats getShowLatency() {
+        return showLatency.snapshot(NANOS_PER_MILLI);
+    }
+
+    @Override
+    public LatencyStats getSoundLatency() {
+        return soundLatency.snapshot(NANOS_PER_MILLI);
+    }
+
+    @Override
+    public LatencyStats getResponseLatency() {
+        return responseLatency.snapshot(NANOS_PER_MILLI);
+    }
+
+    @Override
+    public void reset() {
+        createdCount.reset();
+        shownCount.reset();
+        answeredCount.reset();
+        audioFailureCount.reset();
+        createLatency.reset();
+        showLatency.reset();
+        soundLatency.reset();
+        responseLatency.reset();
+    }
+}
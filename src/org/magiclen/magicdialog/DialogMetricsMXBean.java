@@ -0,0 +1,94 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+/**
+ * 對話框生命週期的監控介面，透過JMX以「org.magiclen.magicdialog:type=DialogMetrics」的名稱提供。
+ *
+ * @author Magic Len
+ */
+public interface DialogMetricsMXBean {
+
+    /**
+     * 取得建立過的對話框數量。
+     *
+     * @return 傳回建立過的對話框數量
+     */
+    public long getCreatedCount();
+
+    /**
+     * 取得顯示過的對話框數量。
+     *
+     * @return 傳回顯示過的對話框數量
+     */
+    public long getShownCount();
+
+    /**
+     * 取得使用者有回應的對話框數量。
+     *
+     * @return 傳回使用者有回應的對話框數量
+     */
+    public long getAnsweredCount();
+
+    /**
+     * 取得目前正在顯示的對話框數量。
+     *
+     * @return 傳回目前正在顯示的對話框數量
+     */
+    public long getOpenCount();
+
+    /**
+     * 取得音效播放失敗的次數。
+     *
+     * @return 傳回音效播放失敗的次數
+     */
+    public long getAudioFailureCount();
+
+    /**
+     * 取得執行createDialog方法所花的時間。
+     *
+     * @return 傳回延遲時間的統計資料
+     */
+    public LatencyStats getCreateLatency();
+
+    /**
+     * 取得對話框從開始顯示到完成顯示所花的時間。
+     *
+     * @return 傳回延遲時間的統計資料
+     */
+    public LatencyStats getShowLatency();
+
+    /**
+     * 取得對話框完成顯示後到音效開始播放所花的時間。
+     *
+     * @return 傳回延遲時間的統計資料
+     */
+    public LatencyStats getSoundLatency();
+
+    /**
+     * 取得對話框完成顯示後到使用者回應所花的時間。
+     *
+     * @return 傳回延遲時間的統計資料
+     */
+    public LatencyStats getResponseLatency();
+
+    /**
+     * 清除所有的統計資料，目前正在顯示的對話框數量除外。
+     */
+    public void reset();
+}
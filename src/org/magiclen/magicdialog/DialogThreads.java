@@ -0,0 +1,75 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import javafx.application.Platform;
+
+/**
+ * 對話框使用的執行緒工具。
+ *
+ * @author Magic Len
+ */
+final class DialogThreads {
+
+    // -----類別常數-----
+    /**
+     * 預設的背景執行器。若執行環境支援虛擬執行緒，則每個工作使用一個虛擬執行緒，否則使用可重複利用的守護執行緒。
+     */
+    static final Executor BACKGROUND = createBackgroundExecutor();
+
+    // -----類別方法-----
+    /**
+     * 建立預設的背景執行器。
+     *
+     * @return 傳回背景執行器
+     */
+    private static Executor createBackgroundExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final Exception ex) {
+            return Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable, "MagicDialog-Worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 在JavaFX的應用程式執行緒上執行。若目前已在應用程式執行緒上，則立即執行。
+     *
+     * @param runnable 傳入要執行的程式
+     */
+    static void runOnFxThread(final Runnable runnable) {
+        if (Platform.isFxApplicationThread()) {
+            runnable.run();
+        } else {
+            Platform.runLater(runnable);
+        }
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private DialogThreads() {
+
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.List;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar.ButtonData;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.util.Callback;
+import javafx.util.Duration;
+
+/**
+ * 對話框的逾時處理。
+ *
+ * @author Magic Len
+ */
+final class DialogTimeouts {
+
+    // -----類別方法-----
+    /**
+     * 讓對話框在顯示一段時間後，若使用者仍未回應，就自動按下指定的按鈕。計時由共用的時間輪負責，對話框關閉時會取消計時。
+     *
+     * @param dialog 傳入對話框
+     * @param timeout 傳入逾時時間，若為null則不會逾時
+     * @param defaultAnswer 傳入逾時時要按下的按鈕
+     */
+    static void install(final Dialog<?> dialog, final Duration timeout, final ButtonType defaultAnswer) {
+        if (timeout == null || timeout.isIndefinite() || timeout.isUnknown()) {
+            return;
+        }
+        final long delay = (long) timeout.toMillis();
+        final TimerWheel.Timeout[] scheduled = new TimerWheel.Timeout[1];
+        dialog.showingProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                scheduled[0] = TimerWheel.getInstance().schedule(() -> {
+                    Platform.runLater(() -> {
+                        dismiss(dialog, defaultAnswer);
+                    });
+                }, delay);
+            } else if (scheduled[0] != null) {
+                scheduled[0].cancel();
+                scheduled[0] = null;
+            }
+        });
+    }
+
+    /**
+     * 按下對話框的按鈕並關閉對話框。若沒有這個按鈕或是按鈕被停用，則以取消按鈕關閉對話框；若對話框也沒有取消按鈕，則直接以指定的按鈕作為結果關閉對話框。
+     *
+     * @param dialog 傳入對話框
+     * @param answer 傳入要按下的按鈕
+     */
+    private static void dismiss(final Dialog<?> dialog, final ButtonType answer) {
+        if (!dialog.isShowing()) {
+            return;
+        }
+        final Node button = answer == null ? null : dialog.getDialogPane().lookupButton(answer);
+        if (button instanceof Button && !button.isDisabled()) {
+            //經由按鈕關閉，讓按鈕事件與結果轉換都和使用者按下時相同
+            ((Button) button).fire();
+            return;
+        }
+        final List<ButtonType> buttonTypes = dialog.getDialogPane().getButtonTypes();
+        closeWith(dialog, answer != null ? answer : (buttonTypes.isEmpty() ? ButtonType.CLOSE : buttonTypes.get(0)));
+    }
+
+    /**
+     * 關閉對話框。有取消按鈕時以取消作為結果；沒有取消按鈕的對話框在沒有結果時無法關閉，因此先以指定的按鈕設定結果。
+     *
+     * @param dialog 傳入對話框
+     * @param result 傳入沒有取消按鈕時作為結果的按鈕
+     */
+    static void closeWith(final Dialog<?> dialog, final ButtonType result) {
+        for (final ButtonType buttonType : dialog.getDialogPane().getButtonTypes()) {
+            final ButtonData buttonData = buttonType.getButtonData();
+            if (buttonData != null && buttonData.isCancelButton()) {
+                //有取消按鈕時，Dialog會自動以取消作為結果
+                dialog.close();
+                return;
+            }
+        }
+        setResult(dialog, result);
+        dialog.close();
+    }
+
+    /**
+     * 以按鈕設定對話框的結果。
+     *
+     * @param <R> 對話框結果的型態
+     * @param dialog 傳入對話框
+     * @param buttonType 傳入按鈕
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> void setResult(final Dialog<R> dialog, final ButtonType buttonType) {
+        final Callback<ButtonType, R> converter = dialog.getResultConverter();
+        //沒有結果轉換時，Dialog的結果就是按下的按鈕
+        dialog.setResult(converter == null ? (R) buttonType : converter.call(buttonType));
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private DialogTimeouts() {
+
+    }
+}
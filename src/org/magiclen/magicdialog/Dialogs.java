@@ -17,9 +17,12 @@
  */
 package org.magiclen.magicdialog;
 
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
@@ -29,9 +32,12 @@ import javafx.scene.control.ButtonBar.ButtonData;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
+import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
 import javafx.scene.text.Font;
 import javafx.stage.Window;
+import javafx.util.Duration;
+import org.magiclen.magicdialog.dialogs.ToastWindow;
 
 /**
  * 一般對話框設定類別，若要建立出對話框必須使用create方法。
@@ -62,6 +68,8 @@ public class Dialogs implements Cloneable {
     private static final Font DEFAULT_FONT = Font.getDefault();
     private static final double FONT_SIZE = DEFAULT_FONT.getSize();
     private static final String FONT_FAMILY = Font.getDefault().getFamily();
+    private static final long TOAST_DURATION = 4000;
+    private static final int MAX_EXCEPTION_MESSAGE_LENGTH = 500;
 
     // -----類別方法-----
     /**
@@ -73,12 +81,37 @@ public class Dialogs implements Cloneable {
         return new Dialogs();
     }
 
+    /**
+     * 建立顯示例外的錯誤對話框設定檔。訊息標題為例外的類別名稱，訊息為例外訊息的第一行，完整的堆疊與原因會放在預設收合的詳細內容中。
+     *
+     * @param throwable 傳入例外
+     * @return 傳回新的對話框設定
+     */
+    public static Dialogs exception(final Throwable throwable) {
+        if (throwable == null) {
+            throw new NullPointerException("The throwable cannot be null.");
+        }
+        String message = throwable.getLocalizedMessage();
+        if (message == null) {
+            message = throwable.getClass().getSimpleName();
+        } else {
+            final int lineEnd = message.indexOf('\n');
+            if (lineEnd >= 0) {
+                message = message.substring(0, lineEnd).concat("...");
+            }
+            if (message.length() > MAX_EXCEPTION_MESSAGE_LENGTH) {
+                message = message.substring(0, MAX_EXCEPTION_MESSAGE_LENGTH).concat("...");
+            }
+        }
+        return create().type(Type.ERROR).title("Error").header(throwable.getClass().getName()).message(message).details(throwable);
+    }
+
     // -----物件常數-----
     private final ArrayList<ButtonType> buttonList = new ArrayList<>();
     private final ArrayList<ButtonEvent> buttonEventList = new ArrayList<>();
 
     // -----物件變數-----
-    private Window owner;
+    private WeakReference<Window> owner;
     private String title = "Title";
     private String message = "Message";
     private String header = null;
@@ -86,6 +119,13 @@ public class Dialogs implements Cloneable {
     private String fontFamily = FONT_FAMILY;
     private Type type = Type.INFORMATION;
     private DialogAudio audio = DialogAudio.DEFAULT;
+    private DialogGraphic graphic = null;
+    private Duration timeout = null;
+    private ButtonType timeoutAnswer = null;
+    private String rememberKey = null;
+    private Path detailsPath = null;
+    private CharSequence detailsText = null;
+    private Throwable detailsThrowable = null;
 
     // -----建構子-----
     /**
@@ -102,29 +142,15 @@ public class Dialogs implements Cloneable {
      * @return 傳回對話框
      */
     public Dialog createDialog() {
+        final long startTime = System.nanoTime();
         final Font font = new Font(fontFamily, fontSize);
-        final AlertType alertType;
-        switch (type) {
-            case INFORMATION:
-                alertType = AlertType.INFORMATION;
-                break;
-            case QUESTION:
-                alertType = AlertType.CONFIRMATION;
-                break;
-            case ERROR:
-                alertType = AlertType.ERROR;
-                break;
-            case WARNING:
-                alertType = AlertType.WARNING;
-                break;
-            default:
-                alertType = AlertType.NONE;
-                break;
-        }
-        final Alert dialog = new Alert(alertType);
-        dialog.initOwner(owner);
+        final Alert dialog = new Alert(toAlertType(type));
+        dialog.initOwner(getOwner());
         dialog.setTitle(title);
         dialog.setHeaderText(header);
+        if (graphic != null) {
+            dialog.setGraphic(graphic.createNode(getOwner()));
+        }
         dialog.setContentText(message);
 
         if (!buttonList.isEmpty()) {
@@ -151,27 +177,30 @@ public class Dialogs implements Cloneable {
                 }
             });
         } else {
-            dialog.getDialogPane().getChildren().stream().filter(node -> node instanceof ButtonBar).forEach(node -> {
-                final ButtonBar buttonBar = (ButtonBar) node;
-                buttonBar.getButtons().stream().filter(insideNode -> insideNode instanceof Button).forEach(insideNode -> {
-                    final Button button = (Button) insideNode;
-                    button.setFont(font);
-                });
-            });
+            changeButtonFont(font, dialog);
         }
 
         //設定標籤文字大小與高度
-        dialog.getDialogPane().getChildren().stream().filter(node -> node instanceof Label).forEach(node -> {
-            final Label label = (Label) node;
-            label.setFont(font);
-            label.setMinHeight(Region.USE_PREF_SIZE);
-        });
+        changeLabelFont(font, dialog);
+
+        //可展開的詳細內容
+        DetailsView.install(dialog, getDetailsSource(), font);
+
+        //記住使用者的決定
+        RememberedDecisions.install(dialog, rememberKey, font);
+
+        //逾時自動回應
+        DialogTimeouts.install(dialog, timeout, timeoutAnswer);
 
         //加入音效
+        final DialogAudio actuallyAudio = getActuallyAudio();
         dialog.setOnShown(e -> {
-            playAudio();
+            DialogAudio.playAudio(actuallyAudio);
         });
 
+        //記錄監控資料
+        DialogMetrics.track(getClass(), dialog, startTime);
+
         return dialog;
     }
 
@@ -179,16 +208,79 @@ public class Dialogs implements Cloneable {
      * 顯示對話框並播放出音效，此方法之後的程式將會繼續執行，如果要取得對話框物件的參考需使用createDialog方法。
      */
     public void show() {
+        if (getRememberedButton() != null) {
+            return;
+        }
         final Dialog dialog = createDialog();
         dialog.show();
     }
 
+    /**
+     * 顯示對話框並播放出音效，此方法之後的程式將會繼續執行。傳回的LiveDialog物件可以在任意執行緒上直接修改已顯示的對話框，不需要關閉後再重新建立。
+     *
+     * @return 傳回可以修改已顯示對話框的LiveDialog物件
+     */
+    public LiveDialog showLive() {
+        final Alert dialog = (Alert) createDialog();
+        final LiveDialog liveDialog = new LiveDialog(dialog, new Font(fontFamily, fontSize));
+        dialog.show();
+        return liveDialog;
+    }
+
+    /**
+     * 以非強制回應的通知顯示訊息標題與訊息，此方法可以在任意執行緒上呼叫，之後的程式將會繼續執行。通知會顯示在擁有者所在螢幕的角落，同一個螢幕上的通知共用同一個視窗，因此大量的通知只需要更新文字。通知的顯示時間可以使用timeout方法設定，預設為4秒。只有在使用audio方法指定音效時才會播放音效。
+     */
+    public void toast() {
+        final String text;
+        if (header == null) {
+            text = message;
+        } else if (message == null) {
+            text = header;
+        } else {
+            text = header.concat("\n").concat(message);
+        }
+        final String color;
+        switch (type) {
+            case QUESTION:
+                color = "#2a7ab0";
+                break;
+            case WARNING:
+                color = "#d9822b";
+                break;
+            case ERROR:
+                color = "#c23b3b";
+                break;
+            default:
+                color = "rgba(40, 40, 40, 0.9)";
+                break;
+        }
+        final long duration;
+        if (timeout == null || timeout.isIndefinite() || timeout.isUnknown()) {
+            duration = TOAST_DURATION;
+        } else {
+            duration = (long) timeout.toMillis();
+        }
+        final Font font = new Font(fontFamily, fontSize);
+        final Window owner = getOwner();
+        //通知視窗只能在應用程式執行緒上使用
+        DialogThreads.runOnFxThread(() -> {
+            ToastWindow.getInstance(ToastWindow.getScreen(owner)).push(text, color, font, duration, owner);
+        });
+        if (audio != DialogAudio.DEFAULT) {
+            DialogAudio.playAudio(audio);
+        }
+    }
+
     /**
      * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行，如果要取得對話框物件的參考需使用createDialog方法。
      *
-     * @return 傳回使用者按下的按鈕，如果沒有按，回傳null
+     * @return 傳回使用者按下的按鈕，如果沒有按，回傳null。若有記住的決定，則不會顯示對話框，直接傳回記住的按鈕
      */
     public ButtonType showAndWait() {
+        final ButtonType rememberedButton = getRememberedButton();
+        if (rememberedButton != null) {
+            return rememberedButton;
+        }
         final Dialog dialog = createDialog();
         final Optional<ButtonType> buttonTypeOpt = dialog.showAndWait();
         if (buttonTypeOpt.isPresent()) {
@@ -198,13 +290,13 @@ public class Dialogs implements Cloneable {
     }
 
     /**
-     * 設定擁有對話框的Window。
+     * 設定擁有對話框的Window。對話框設定只會弱參考這個Window，因此長期保存的對話框設定不會讓已關閉的Window無法被回收。
      *
      * @param owner 傳入擁有對話框的Window
      * @return 再把對話框設定傳回
      */
     public Dialogs owner(final Window owner) {
-        this.owner = owner;
+        this.owner = owner == null ? null : new WeakReference<>(owner);
         return this;
     }
 
@@ -293,6 +385,17 @@ public class Dialogs implements Cloneable {
         return this;
     }
 
+    /**
+     * 設定對話框的圖片。
+     *
+     * @param graphic 傳入對話框的圖片，若為null則使用對話框類型的圖片
+     * @return 再把對話框設定傳回
+     */
+    public Dialogs graphic(final DialogGraphic graphic) {
+        this.graphic = graphic;
+        return this;
+    }
+
     /**
      * 加入按鈕至對話框中。
      *
@@ -329,6 +432,69 @@ public class Dialogs implements Cloneable {
         return addButton(new ButtonType(text, type), event);
     }
 
+    /**
+     * 設定對話框可展開的詳細內容。檔案會以唯讀的方式映射到記憶體中並以UTF-8編碼讀取，只有在使用者展開詳細內容時才會開始讀取，並且只會轉換顯示中的行，適合用來顯示很大的報表或是記錄檔。映射要等到對話框被GC回收後才會釋放，在Windows上檔案在那之前都無法刪除或是覆寫。
+     *
+     * @param path 傳入詳細內容的檔案路徑，若為null則沒有詳細內容
+     * @return 再把對話框設定傳回
+     */
+    public Dialogs details(final Path path) {
+        this.detailsPath = path;
+        this.detailsText = null;
+        this.detailsThrowable = null;
+        return this;
+    }
+
+    /**
+     * 設定對話框可展開的詳細內容。只有在使用者展開詳細內容時才會在背景建立行索引，並且只會轉換顯示中的行，適合用來顯示很長的文字。文字在對話框關閉之前不可以被修改。
+     *
+     * @param text 傳入詳細內容的文字，若為null則沒有詳細內容
+     * @return 再把對話框設定傳回
+     */
+    public Dialogs details(final CharSequence text) {
+        this.detailsText = text;
+        this.detailsPath = null;
+        this.detailsThrowable = null;
+        return this;
+    }
+
+    /**
+     * 設定對話框可展開的詳細內容為例外的堆疊。堆疊只有在使用者展開詳細內容時才會在背景執行緒上格式化，遞迴造成的重複堆疊以及連續的Java、JavaFX框架堆疊會被摺疊起來。
+     *
+     * @param throwable 傳入例外，若為null則沒有詳細內容
+     * @return 再把對話框設定傳回
+     */
+    public Dialogs details(final Throwable throwable) {
+        this.detailsThrowable = throwable;
+        this.detailsPath = null;
+        this.detailsText = null;
+        return this;
+    }
+
+    /**
+     * 設定對話框的逾時時間。對話框顯示超過逾時時間使用者仍未回應時，將自動按下指定的按鈕並關閉對話框。使用toast方法時，逾時時間即為通知的顯示時間。
+     *
+     * @param timeout 傳入逾時時間，若為null則不會逾時
+     * @param defaultAnswer 傳入逾時時要按下的按鈕，若對話框沒有這個按鈕或是這個按鈕被停用(例如輸入尚未通過驗證)，則以取消按鈕關閉對話框，沒有取消按鈕時以這個按鈕作為結果關閉對話框
+     * @return 再把對話框設定傳回
+     */
+    public Dialogs timeout(final Duration timeout, final ButtonType defaultAnswer) {
+        this.timeout = timeout;
+        this.timeoutAnswer = defaultAnswer;
+        return this;
+    }
+
+    /**
+     * 讓對話框可以記住使用者的決定。對話框中會多出「不要再問」的選項，使用者勾選後按下的按鈕(取消除外)將會存入DecisionStore，之後使用show或是showAndWait方法時不會再顯示對話框，而是直接使用記住的按鈕。
+     *
+     * @param key 傳入決定的名稱，若為null則不會記住
+     * @return 再把對話框設定傳回
+     */
+    public Dialogs rememberAs(final String key) {
+        this.rememberKey = key;
+        return this;
+    }
+
     /**
      * 複製對話框設定。
      *
@@ -337,7 +503,10 @@ public class Dialogs implements Cloneable {
     @Override
     public Object clone() {
         final Dialogs dialogs = Dialogs.create();
-        dialogs.audio(audio).fontSize(fontSize).fontFamily(fontFamily).owner(owner).message(message).header(header).title(title).type(type);
+        dialogs.audio(audio).graphic(graphic).fontSize(fontSize).fontFamily(fontFamily).owner(getOwner()).message(message).header(header).title(title).type(type).timeout(timeout, timeoutAnswer).rememberAs(rememberKey);
+        dialogs.detailsPath = detailsPath;
+        dialogs.detailsText = detailsText;
+        dialogs.detailsThrowable = detailsThrowable;
         final int buttonCount = buttonList.size();
         for (int i = 0; i < buttonCount; ++i) {
             dialogs.addButton(buttonList.get(i), buttonEventList.get(i));
@@ -346,9 +515,133 @@ public class Dialogs implements Cloneable {
     }
 
     /**
-     * 播放音效。
+     * 將對話框的類型轉換成Alert的類型。
+     *
+     * @param type 傳入對話框的類型
+     * @return 傳回Alert的類型
+     */
+    static AlertType toAlertType(final Type type) {
+        switch (type) {
+            case INFORMATION:
+                return AlertType.INFORMATION;
+            case QUESTION:
+                return AlertType.CONFIRMATION;
+            case ERROR:
+                return AlertType.ERROR;
+            case WARNING:
+                return AlertType.WARNING;
+            default:
+                return AlertType.NONE;
+        }
+    }
+
+    /**
+     * 更改對話框按鈕的字型。
+     *
+     * @param font 傳入字型
+     * @param dialog 傳入對話框
+     */
+    static void changeButtonFont(final Font font, final Dialog<?> dialog) {
+        dialog.getDialogPane().getChildren().stream().filter(node -> node instanceof ButtonBar).forEach(node -> {
+            final ButtonBar buttonBar = (ButtonBar) node;
+            buttonBar.getButtons().stream().filter(insideNode -> insideNode instanceof Button).forEach(insideNode -> {
+                final Button button = (Button) insideNode;
+                button.setFont(font);
+            });
+        });
+    }
+
+    /**
+     * 更改對話框訊息與訊息標題的字型，並讓標籤的高度足以顯示所有文字。
+     *
+     * @param font 傳入字型
+     * @param dialog 傳入對話框
+     */
+    static void changeLabelFont(final Font font, final Dialog<?> dialog) {
+        dialog.getDialogPane().getChildren().forEach(node -> {
+            if (node instanceof Label) {
+                final Label label = (Label) node;
+                label.setFont(font);
+                label.setMinHeight(Region.USE_PREF_SIZE);
+            } else if (node.getStyleClass().contains("header-panel")) {
+                //訊息標題的標籤在DialogPane建立的header-panel中
+                ((Pane) node).getChildren().stream().filter(insideNode -> insideNode instanceof Label).forEach(insideNode -> {
+                    ((Label) insideNode).setFont(font);
+                });
+            }
+        });
+    }
+
+    /**
+     * 取得記住的按鈕，並執行按鈕的事件。
+     *
+     * @return 傳回記住的按鈕，若沒有記住或是對話框已經沒有這個按鈕，回傳null
+     */
+    private ButtonType getRememberedButton() {
+        if (rememberKey == null) {
+            return null;
+        }
+        final String value = DecisionStore.get(rememberKey);
+        if (value == null) {
+            return null;
+        }
+        if (!buttonList.isEmpty()) {
+            final int buttonCount = buttonList.size();
+            for (int i = 0; i < buttonCount; ++i) {
+                final ButtonType buttonType = buttonList.get(i);
+                if (value.equals(RememberedDecisions.encodeButton(i, buttonType))) {
+                    final ButtonEvent event = buttonEventList.get(i);
+                    if (event != null) {
+                        Platform.runLater(() -> {
+                            event.onClick();
+                        });
+                    }
+                    return buttonType;
+                }
+            }
+            return null;
+        }
+        //使用Alert預設的按鈕，取消不會被記住，因此只剩下確定按鈕
+        if (type != Type.NONE && value.equals(RememberedDecisions.encodeButton(0, ButtonType.OK))) {
+            return ButtonType.OK;
+        }
+        return null;
+    }
+
+    /**
+     * 取得建立詳細內容行索引的方法。
+     *
+     * @return 傳回建立行索引的方法，若沒有詳細內容，回傳null
+     */
+    private Callable<LineIndex> getDetailsSource() {
+        final Path path = detailsPath;
+        final CharSequence text = detailsText;
+        final Throwable throwable = detailsThrowable;
+        if (throwable != null) {
+            return () -> LineIndex.of(StackTraceFormatter.format(throwable));
+        } else if (path != null) {
+            return () -> LineIndex.of(path);
+        } else if (text != null) {
+            return () -> LineIndex.of(text);
+        }
+        return null;
+    }
+
+    /**
+     * 取得擁有對話框的Window。
+     *
+     * @return 傳回擁有對話框的Window，若沒有設定或是已被回收，回傳null
+     */
+    private Window getOwner() {
+        return owner == null ? null : owner.get();
+    }
+
+    /**
+     * 取得實際要播放的音效。
+     *
+     * @return 傳回實際要播放的音效
      */
-    private void playAudio() {
+    private DialogAudio getActuallyAudio() {
         DialogAudio actuallyAudio = audio;
         if (audio == DialogAudio.DEFAULT) {
             switch (type) {
@@ -366,6 +659,6 @@ public class Dialogs implements Cloneable {
                     break;
             }
         }
-        DialogAudio.playAudio(actuallyAudio);
+        return actuallyAudio;
     }
 }
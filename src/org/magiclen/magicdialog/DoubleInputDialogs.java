@@ -17,7 +17,9 @@
  */
 package org.magiclen.magicdialog;
 
+import java.lang.ref.WeakReference;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonBar;
@@ -26,11 +28,11 @@ import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
 import javafx.scene.control.Labeled;
 import javafx.scene.control.TextField;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.text.Font;
 import javafx.stage.Window;
+import javafx.util.Duration;
 
 /**
  * 輸入對話框設定類別，若要建立出對話框必須使用create方法。
@@ -45,6 +47,7 @@ public class DoubleInputDialogs implements Cloneable {
     private static final Font DEFAULT_FONT = Font.getDefault();
     private static final double FONT_SIZE = DEFAULT_FONT.getSize();
     private static final String FONT_FAMILY = Font.getDefault().getFamily();
+    private static final DialogGraphic DEFAULT_GRAPHIC = DialogGraphic.image("/org/magiclen/magicdialog/did.png");
 
     // -----類別方法-----
     /**
@@ -58,16 +61,23 @@ public class DoubleInputDialogs implements Cloneable {
 
     // -----物件常數-----
     // -----物件變數-----
-    private Window owner;
+    private WeakReference<Window> owner;
     private String title = "Title";
     private String message1 = null;
     private String message2 = null;
     private String header = null;
     private String text1 = null;
     private String text2 = null;
+    private String name1 = null;
+    private String name2 = null;
+    private AsyncValidator<? super String[]> validator = null;
+    private Duration validationDelay = AsyncValidation.DEFAULT_DELAY;
     private double fontSize = FONT_SIZE;
     private String fontFamily = FONT_FAMILY;
     private DialogAudio audio = DialogAudio.DEFAULT;
+    private DialogGraphic graphic = null;
+    private Duration timeout = null;
+    private ButtonType timeoutAnswer = null;
 
     // -----建構子-----
     /**
@@ -107,13 +117,39 @@ public class DoubleInputDialogs implements Cloneable {
      * @return 傳回對話框
      */
     public Dialog<String[]> createDialog() {
+        return createDialog((value1, value2) -> new String[]{value1, value2}, null);
+    }
+
+    /**
+     * 建立結果會綁定到指定類別的對話框。若有使用names方法設定欄位名稱，則依照名稱對應到record的元件或是JavaBean的屬性，否則依照record元件的順序綁定。輸入的文字無法轉換時，確定按鈕會被停用，錯誤訊息會顯示在輸入方塊下方。檢查時只會在背景執行緒上呼叫文字轉換方法，建構子與setter方法只會在按下確定後於應用程式執行緒上呼叫，它們丟出的例外不會被攔截。
+     *
+     * @param <T> 傳入結果的類別
+     * @param type 傳入結果的類別，可以是record或是有無參數建構子的JavaBean
+     * @return 傳回對話框，使用者按下確定後的結果為新的物件
+     * @throws IllegalArgumentException 若欄位名稱沒有對應的屬性，或是屬性的型態無法從文字轉換
+     */
+    public <T> Dialog<T> createDialog(final Class<T> type) {
+        final ResultBinding.Plan<T> plan = ResultBinding.plan(type, name1 == null ? null : new String[]{name1, name2});
+        return createDialog((value1, value2) -> plan.bind(2, i -> i == 0 ? value1 : value2), plan);
+    }
+
+    /**
+     * 建立對話框。
+     *
+     * @param <R> 結果的類別
+     * @param converter 傳入將兩個輸入方塊的文字轉換成結果的方法
+     * @param plan 傳入檢查輸入的文字能否綁定的計畫，若為null則不檢查
+     * @return 傳回對話框
+     */
+    private <R> Dialog<R> createDialog(final BiFunction<String, String, R> converter, final ResultBinding.Plan<?> plan) {
+        final long startTime = System.nanoTime();
         final Font font = new Font(fontFamily, fontSize);
 
-        final Dialog<String[]> dialog = new Dialog<>();
-        dialog.initOwner(owner);
+        final Dialog<R> dialog = new Dialog<>();
+        dialog.initOwner(getOwner());
         dialog.setTitle(title);
         dialog.setHeaderText(header);
-        dialog.setGraphic(new ImageView(this.getClass().getResource("/org/magiclen/magicdialog/did.png").toString()));
+        dialog.setGraphic((graphic != null ? graphic : DEFAULT_GRAPHIC).createNode(getOwner()));
 
         dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
 
@@ -140,19 +176,41 @@ public class DoubleInputDialogs implements Cloneable {
 
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == ButtonType.OK) {
-                return new String[]{tf1.getText(), tf2.getText()};
+                return converter.apply(tf1.getText(), tf2.getText());
             }
             return null;
         });
 
+        //驗證輸入的內容，需要綁定時先檢查能否綁定，再交給驗證器
+        if (plan == null) {
+            AsyncValidation.install(dialog, validator, validationDelay, () -> new String[]{tf1.getText(), tf2.getText()}, tf1.textProperty(), tf2.textProperty());
+        } else {
+            final AsyncValidator<? super String[]> userValidator = validator;
+            final AsyncValidator<String[]> bindingValidator = values -> {
+                final String error = plan.check(values);
+                if (error != null || userValidator == null) {
+                    return error;
+                }
+                return userValidator.validate(values);
+            };
+            AsyncValidation.install(dialog, bindingValidator, validationDelay, () -> new String[]{tf1.getText(), tf2.getText()}, tf1.textProperty(), tf2.textProperty());
+        }
+
         //設定標籤文字大小與高度
         changeFontSize(font, dialog.getDialogPane());
 
+        //逾時自動回應
+        DialogTimeouts.install(dialog, timeout, timeoutAnswer);
+
         //加入音效
+        final DialogAudio actuallyAudio = getActuallyAudio();
         dialog.setOnShown(e -> {
-            playAudio();
+            DialogAudio.playAudio(actuallyAudio);
         });
 
+        //記錄監控資料
+        DialogMetrics.track(getClass(), dialog, startTime);
+
         return dialog;
     }
 
@@ -171,13 +229,29 @@ public class DoubleInputDialogs implements Cloneable {
     }
 
     /**
-     * 設定擁有對話框的Window。
+     * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行。使用者輸入的文字會綁定到指定類別的新物件上，若有使用names方法設定欄位名稱，則依照名稱對應到record的元件或是JavaBean的屬性，否則依照record元件的順序綁定。輸入的文字無法轉換時，無法按下確定按鈕。
+     *
+     * @param <T> 傳入結果的類別
+     * @param type 傳入結果的類別，可以是record或是有無參數建構子的JavaBean
+     * @return 傳回綁定後的物件，如果沒有輸入，回傳null
+     */
+    public <T> T showAndWait(final Class<T> type) {
+        final Dialog<T> dialog = createDialog(type);
+        final Optional<T> valueOpt = dialog.showAndWait();
+        if (valueOpt.isPresent()) {
+            return valueOpt.get();
+        }
+        return null;
+    }
+
+    /**
+     * 設定擁有對話框的Window。對話框設定只會弱參考這個Window，因此長期保存的對話框設定不會讓已關閉的Window無法被回收。
      *
      * @param owner 傳入擁有對話框的Window
      * @return 再把對話框設定傳回
      */
     public DoubleInputDialogs owner(final Window owner) {
-        this.owner = owner;
+        this.owner = owner == null ? null : new WeakReference<>(owner);
         return this;
     }
 
@@ -229,6 +303,22 @@ public class DoubleInputDialogs implements Cloneable {
         return this;
     }
 
+    /**
+     * 設定欄位的名稱，用來將結果綁定到record或是JavaBean物件上。兩個名稱必須同時設定，或是同時為null。
+     *
+     * @param name1 傳入第一個欄位的名稱
+     * @param name2 傳入第二個欄位的名稱
+     * @return 再把對話框設定傳回
+     */
+    public DoubleInputDialogs names(final String name1, final String name2) {
+        if ((name1 == null) != (name2 == null)) {
+            throw new IllegalArgumentException("Both names must be set, or both must be null.");
+        }
+        this.name1 = name1;
+        this.name2 = name2;
+        return this;
+    }
+
     /**
      * 設定對話框的字體大小。
      *
@@ -266,6 +356,53 @@ public class DoubleInputDialogs implements Cloneable {
         return this;
     }
 
+    /**
+     * 設定對話框的圖片。
+     *
+     * @param graphic 傳入對話框的圖片，若為null則使用預設的did.png圖片
+     * @return 再把對話框設定傳回
+     */
+    public DoubleInputDialogs graphic(final DialogGraphic graphic) {
+        this.graphic = graphic;
+        return this;
+    }
+
+    /**
+     * 設定對話框的逾時時間。對話框顯示超過逾時時間使用者仍未回應時，將自動按下指定的按鈕並關閉對話框。若按下的是確定按鈕，將會傳回目前輸入的文字。
+     *
+     * @param timeout 傳入逾時時間，若為null則不會逾時
+     * @param defaultAnswer 傳入逾時時要按下的按鈕，若對話框沒有這個按鈕或是這個按鈕被停用(例如輸入尚未通過驗證)，則以取消按鈕關閉對話框，沒有取消按鈕時以這個按鈕作為結果關閉對話框
+     * @return 再把對話框設定傳回
+     */
+    public DoubleInputDialogs timeout(final Duration timeout, final ButtonType defaultAnswer) {
+        this.timeout = timeout;
+        this.timeoutAnswer = defaultAnswer;
+        return this;
+    }
+
+    /**
+     * 設定輸入內容的驗證器。輸入內容改變並停頓300毫秒後，驗證器會在背景執行緒上驗證兩個欄位輸入的文字，在最新的內容通過驗證之前，確定按鈕會被停用，錯誤訊息會顯示在輸入方塊下方。
+     *
+     * @param validator 傳入驗證器，若為null則不驗證
+     * @return 再把對話框設定傳回
+     */
+    public DoubleInputDialogs validator(final AsyncValidator<? super String[]> validator) {
+        return validator(validator, AsyncValidation.DEFAULT_DELAY);
+    }
+
+    /**
+     * 設定輸入內容的驗證器。輸入內容改變並停頓指定的時間後，驗證器會在背景執行緒上驗證兩個欄位輸入的文字，在最新的內容通過驗證之前，確定按鈕會被停用，錯誤訊息會顯示在輸入方塊下方。
+     *
+     * @param validator 傳入驗證器，若為null則不驗證
+     * @param delay 傳入輸入停頓多久後開始驗證
+     * @return 再把對話框設定傳回
+     */
+    public DoubleInputDialogs validator(final AsyncValidator<? super String[]> validator, final Duration delay) {
+        this.validator = validator;
+        this.validationDelay = delay == null ? AsyncValidation.DEFAULT_DELAY : delay;
+        return this;
+    }
+
     /**
      * 複製對話框設定。
      *
@@ -274,19 +411,30 @@ public class DoubleInputDialogs implements Cloneable {
     @Override
     public Object clone() {
         final DoubleInputDialogs dialogs = DoubleInputDialogs.create();
-        dialogs.audio(audio).fontSize(fontSize).fontFamily(fontFamily).owner(owner).message(message1, message2).header(header).title(title).text(text1, text2);
+        dialogs.audio(audio).graphic(graphic).fontSize(fontSize).fontFamily(fontFamily).owner(getOwner()).message(message1, message2).header(header).title(title).text(text1, text2).names(name1, name2).timeout(timeout, timeoutAnswer).validator(validator, validationDelay);
         return dialogs;
     }
 
     /**
-     * 播放音效。
+     * 取得擁有對話框的Window。
+     *
+     * @return 傳回擁有對話框的Window，若沒有設定或是已被回收，回傳null
+     */
+    private Window getOwner() {
+        return owner == null ? null : owner.get();
+    }
+
+    /**
+     * 取得實際要播放的音效。
+     *
+     * @return 傳回實際要播放的音效
      */
-    private void playAudio() {
+    private DialogAudio getActuallyAudio() {
         DialogAudio actuallyAudio = audio;
         if (audio == DialogAudio.DEFAULT) {
             actuallyAudio = DialogAudio.SLUMP;
         }
-        DialogAudio.playAudio(actuallyAudio);
+        return actuallyAudio;
     }
 
 }
@@ -0,0 +1,518 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.function.Function;
+import javafx.application.Platform;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.Pagination;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * 表單對話框設定類別，可以有任意數量的輸入方塊，若要建立出對話框必須使用create方法。欄位會分頁顯示，且只有在切換到該頁時才會建立，因此有大量欄位的表單也能和只有幾個欄位的表單一樣快速開啟。
+ *
+ * @author Magic Len
+ */
+public class FormDialogs implements Cloneable {
+
+    // -----類別介面-----
+    // -----類別列舉-----
+    // -----類別常數-----
+    private static final Font DEFAULT_FONT = Font.getDefault();
+    private static final double FONT_SIZE = DEFAULT_FONT.getSize();
+    private static final String FONT_FAMILY = Font.getDefault().getFamily();
+    private static final DialogGraphic DEFAULT_GRAPHIC = DialogGraphic.image("/org/magiclen/magicdialog/did.png");
+    private static final int PAGE_SIZE = 10;
+
+    // -----類別方法-----
+    /**
+     * 建立對話框的設定檔。
+     *
+     * @return 傳回新的對話框設定
+     */
+    public static FormDialogs create() {
+        return new FormDialogs();
+    }
+
+    // -----物件常數-----
+    private final ArrayList<String> nameList = new ArrayList<>();
+    private final ArrayList<String> labelList = new ArrayList<>();
+    private final ArrayList<String> promptList = new ArrayList<>();
+    private final ArrayList<String> textList = new ArrayList<>();
+
+    // -----物件變數-----
+    private WeakReference<Window> owner;
+    private String title = "Title";
+    private String message = null;
+    private String header = null;
+    private int pageSize = PAGE_SIZE;
+    private double fontSize = FONT_SIZE;
+    private String fontFamily = FONT_FAMILY;
+    private DialogAudio audio = DialogAudio.DEFAULT;
+    private DialogGraphic graphic = null;
+    private Duration timeout = null;
+    private ButtonType timeoutAnswer = null;
+
+    // -----建構子-----
+    /**
+     * 建構子，設為private，無法提供其他類別實體化。
+     */
+    private FormDialogs() {
+
+    }
+
+    // -----物件方法-----
+    /**
+     * 更改文字大小。
+     *
+     * @param font 傳入字型
+     * @param pane 傳入容器
+     */
+    private void changeFontSize(final Font font, final Pane pane) {
+        pane.getChildren().stream().forEach(node -> {
+            if (node instanceof Pane) {
+                changeFontSize(font, (Pane) node);
+            } else if (node instanceof Labeled) {
+                ((Labeled) node).setFont(font);
+            } else if (node instanceof TextField) {
+                ((TextField) node).setFont(font);
+            } else if (node instanceof ButtonBar) {
+                ((ButtonBar) node).getButtons().stream().filter(insideNode -> insideNode instanceof Button).forEach(insideNode -> {
+                    final Button button = (Button) insideNode;
+                    button.setFont(font);
+                });
+            }
+        });
+    }
+
+    /**
+     * 建立對話框。
+     *
+     * @return 傳回對話框，使用者按下確定後的結果為每個欄位輸入的文字，順序與加入欄位的順序相同
+     */
+    public Dialog<String[]> createDialog() {
+        return createDialog(values -> values.clone(), null);
+    }
+
+    /**
+     * 建立結果會綁定到指定類別的對話框。欄位的名稱對應到record的元件名稱，或是JavaBean的屬性名稱，輸入的文字會轉換成屬性的型態。輸入的文字無法轉換時，確定按鈕會被停用，錯誤訊息會顯示在欄位下方。檢查時只會在背景執行緒上呼叫文字轉換方法，建構子與setter方法只會在按下確定後於應用程式執行緒上呼叫，它們丟出的例外不會被攔截。
+     *
+     * @param <T> 傳入結果的類別
+     * @param type 傳入結果的類別，可以是record或是有無參數建構子的JavaBean
+     * @return 傳回對話框，使用者按下確定後的結果為新的物件
+     * @throws IllegalArgumentException 若欄位名稱沒有對應的屬性，或是屬性的型態無法從文字轉換
+     */
+    public <T> Dialog<T> createDialog(final Class<T> type) {
+        final ResultBinding.Plan<T> plan = ResultBinding.plan(type, nameList.toArray(new String[nameList.size()]));
+        return createDialog(plan::bind, plan);
+    }
+
+    /**
+     * 建立對話框。
+     *
+     * @param <R> 結果的類別
+     * @param converter 傳入將所有欄位的文字轉換成結果的方法
+     * @param plan 傳入檢查欄位的文字能否綁定的計畫，若為null則不檢查
+     * @return 傳回對話框
+     */
+    private <R> Dialog<R> createDialog(final Function<String[], R> converter, final ResultBinding.Plan<?> plan) {
+        final long startTime = System.nanoTime();
+        final Font font = new Font(fontFamily, fontSize);
+        final int fieldCount = labelList.size();
+        final String[] labels = labelList.toArray(new String[fieldCount]);
+        final String[] prompts = promptList.toArray(new String[fieldCount]);
+        //所有欄位的值都存在同一個陣列中，頁面被建立前也能取得預設的文字
+        final String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; ++i) {
+            final String text = textList.get(i);
+            values[i] = text == null ? "" : text;
+        }
+        //欄位是延遲建立的，因此以修改次數通知欄位的文字有變動
+        final IntegerProperty revision = new SimpleIntegerProperty();
+
+        final Dialog<R> dialog = new Dialog<>();
+        dialog.initOwner(getOwner());
+        dialog.setTitle(title);
+        dialog.setHeaderText(header);
+        dialog.setGraphic((graphic != null ? graphic : DEFAULT_GRAPHIC).createNode(getOwner()));
+
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        final VBox vbMain = new VBox(10);
+        vbMain.setPadding(new Insets(20, 20, 10, 10));
+        if (message != null) {
+            final Label lMessage = new Label(message);
+            lMessage.setWrapText(true);
+            vbMain.getChildren().add(lMessage);
+        }
+
+        final int pageCount = Math.max(1, (fieldCount + pageSize - 1) / pageSize);
+        if (pageCount == 1) {
+            vbMain.getChildren().add(createPage(font, labels, prompts, values, revision, 0, fieldCount));
+        } else {
+            //只在切換到某一頁時才建立那一頁的欄位，建立過的頁面會保留下來
+            final Node[] pages = new Node[pageCount];
+            final Pagination pagination = new Pagination(pageCount, 0);
+            pagination.setPageFactory(pageIndex -> {
+                if (pages[pageIndex] == null) {
+                    final int from = pageIndex * pageSize;
+                    pages[pageIndex] = createPage(font, labels, prompts, values, revision, from, Math.min(fieldCount, from + pageSize));
+                }
+                return pages[pageIndex];
+            });
+            vbMain.getChildren().add(pagination);
+        }
+
+        dialog.getDialogPane().setContent(vbMain);
+
+        dialog.setResultConverter(dialogButton -> {
+            if (dialogButton == ButtonType.OK) {
+                return converter.apply(values);
+            }
+            return null;
+        });
+
+        //檢查輸入的文字能否綁定，在能綁定之前不能按下確定按鈕
+        if (plan != null) {
+            AsyncValidation.install(dialog, plan::check, AsyncValidation.DEFAULT_DELAY, values::clone, revision);
+        }
+
+        //設定標籤文字大小與高度
+        changeFontSize(font, dialog.getDialogPane());
+
+        //逾時自動回應
+        DialogTimeouts.install(dialog, timeout, timeoutAnswer);
+
+        //加入音效
+        final DialogAudio actuallyAudio = getActuallyAudio();
+        dialog.setOnShown(e -> {
+            DialogAudio.playAudio(actuallyAudio);
+        });
+
+        //記錄監控資料
+        DialogMetrics.track(getClass(), dialog, startTime);
+
+        return dialog;
+    }
+
+    /**
+     * 建立一頁的欄位。
+     *
+     * @param font 傳入字型
+     * @param labels 傳入所有欄位的標籤
+     * @param prompts 傳入所有欄位的提示文字
+     * @param values 傳入所有欄位的值
+     * @param revision 傳入欄位的修改次數，任一欄位的文字改變時會增加
+     * @param from 傳入這一頁第一個欄位的索引
+     * @param to 傳入這一頁最後一個欄位的下一個索引
+     * @return 傳回這一頁
+     */
+    private static GridPane createPage(final Font font, final String[] labels, final String[] prompts, final String[] values, final IntegerProperty revision, final int from, final int to) {
+        final GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        final ColumnConstraints labelColumn = new ColumnConstraints();
+        final ColumnConstraints fieldColumn = new ColumnConstraints();
+        fieldColumn.setHgrow(Priority.ALWAYS);
+        grid.getColumnConstraints().addAll(labelColumn, fieldColumn);
+
+        for (int i = from; i < to; ++i) {
+            final int index = i;
+            final Label label = new Label(labels[i]);
+            label.setFont(font);
+            final TextField textField = new TextField(values[i]);
+            textField.setFont(font);
+            textField.setPromptText(prompts[i]);
+            textField.setMaxWidth(Integer.MAX_VALUE);
+            textField.textProperty().addListener((observable, oldValue, newValue) -> {
+                values[index] = newValue;
+                revision.set(revision.get() + 1);
+            });
+            grid.add(label, 0, i - from);
+            grid.add(textField, 1, i - from);
+        }
+
+        if (to > from) {
+            final Node first = grid.getChildren().get(1);
+            Platform.runLater(first::requestFocus);
+        }
+        return grid;
+    }
+
+    /**
+     * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行，如果要取得對話框物件的參考需使用createDialog方法。
+     *
+     * @return 傳回每個欄位輸入的文字，如果沒有輸入，回傳null
+     */
+    public String[] showAndWait() {
+        final Dialog<String[]> dialog = createDialog();
+        final Optional<String[]> valuesOpt = dialog.showAndWait();
+        if (valuesOpt.isPresent()) {
+            return valuesOpt.get();
+        }
+        return null;
+    }
+
+    /**
+     * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行。使用者輸入的文字會綁定到指定類別的新物件上。
+     *
+     * @param <T> 傳入結果的類別
+     * @param type 傳入結果的類別，可以是record或是有無參數建構子的JavaBean
+     * @return 傳回綁定後的物件，如果沒有輸入，回傳null
+     */
+    public <T> T showAndWait(final Class<T> type) {
+        final Dialog<T> dialog = createDialog(type);
+        final Optional<T> valueOpt = dialog.showAndWait();
+        if (valueOpt.isPresent()) {
+            return valueOpt.get();
+        }
+        return null;
+    }
+
+    /**
+     * 設定擁有對話框的Window。對話框設定只會弱參考這個Window，因此長期保存的對話框設定不會讓已關閉的Window無法被回收。
+     *
+     * @param owner 傳入擁有對話框的Window
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs owner(final Window owner) {
+        this.owner = owner == null ? null : new WeakReference<>(owner);
+        return this;
+    }
+
+    /**
+     * 設定對話框的標題。
+     *
+     * @param title 傳入對話框的標題
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs title(final String title) {
+        this.title = title;
+        return this;
+    }
+
+    /**
+     * 設定對話框的訊息，訊息會顯示在欄位上方。
+     *
+     * @param message 傳入對話框的訊息
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs message(final String message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * 設定對話框的訊息標題。
+     *
+     * @param header 傳入對話框的訊息標題
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs header(final String header) {
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * 加入一個欄位，欄位的名稱與標籤相同。
+     *
+     * @param label 傳入欄位的標籤
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs field(final String label) {
+        return field(label, label, null, null);
+    }
+
+    /**
+     * 加入一個欄位。
+     *
+     * @param name 傳入欄位的名稱
+     * @param label 傳入欄位的標籤
+     * @param prompt 傳入欄位的提示文字
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs field(final String name, final String label, final String prompt) {
+        return field(name, label, prompt, null);
+    }
+
+    /**
+     * 加入一個欄位。
+     *
+     * @param name 傳入欄位的名稱
+     * @param label 傳入欄位的標籤
+     * @param prompt 傳入欄位的提示文字
+     * @param text 傳入欄位的預設文字內容
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs field(final String name, final String label, final String prompt, final String text) {
+        nameList.add(name);
+        labelList.add(label);
+        promptList.add(prompt);
+        textList.add(text);
+        return this;
+    }
+
+    /**
+     * 取得欄位的數量。
+     *
+     * @return 傳回欄位的數量
+     */
+    public int getFieldCount() {
+        return nameList.size();
+    }
+
+    /**
+     * 取得欄位的名稱。
+     *
+     * @param index 傳入欄位的索引
+     * @return 傳回欄位的名稱
+     */
+    public String getFieldName(final int index) {
+        return nameList.get(index);
+    }
+
+    /**
+     * 設定每一頁的欄位數量。欄位數量超過這個值時，表單會分頁顯示。
+     *
+     * @param pageSize 傳入每一頁的欄位數量
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs pageSize(final int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+        return this;
+    }
+
+    /**
+     * 設定對話框的字體大小。
+     *
+     * @param fontSize 傳入對話框的字體大小
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs fontSize(final double fontSize) {
+        this.fontSize = fontSize;
+        return this;
+    }
+
+    /**
+     * 設定對話框的字體樣式。
+     *
+     * @param fontFamily 傳入對話框的字體樣式
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs fontFamily(final String fontFamily) {
+        this.fontFamily = fontFamily;
+        return this;
+    }
+
+    /**
+     * 設定對話框的音效，音效將在使用show或是showAndWait方法時播放出來。
+     *
+     * @param audio 傳入對話框的音效
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs audio(final DialogAudio audio) {
+        if (audio == null) {
+            this.audio = DialogAudio.NONE;
+        } else {
+            this.audio = audio;
+        }
+        return this;
+    }
+
+    /**
+     * 設定對話框的圖片。
+     *
+     * @param graphic 傳入對話框的圖片，若為null則使用預設的did.png圖片
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs graphic(final DialogGraphic graphic) {
+        this.graphic = graphic;
+        return this;
+    }
+
+    /**
+     * 設定對話框的逾時時間。對話框顯示超過逾時時間使用者仍未回應時，將自動按下指定的按鈕並關閉對話框。若按下的是確定按鈕，將會傳回目前輸入的文字。
+     *
+     * @param timeout 傳入逾時時間，若為null則不會逾時
+     * @param defaultAnswer 傳入逾時時要按下的按鈕，若對話框沒有這個按鈕或是這個按鈕被停用(例如輸入尚未通過驗證)，則以取消按鈕關閉對話框，沒有取消按鈕時以這個按鈕作為結果關閉對話框
+     * @return 再把對話框設定傳回
+     */
+    public FormDialogs timeout(final Duration timeout, final ButtonType defaultAnswer) {
+        this.timeout = timeout;
+        this.timeoutAnswer = defaultAnswer;
+        return this;
+    }
+
+    /**
+     * 複製對話框設定。
+     *
+     * @return 傳回設定值一樣但是為不同物件的對話框設定
+     */
+    @Override
+    public Object clone() {
+        final FormDialogs dialogs = FormDialogs.create();
+        dialogs.audio(audio).graphic(graphic).fontSize(fontSize).fontFamily(fontFamily).owner(getOwner()).message(message).header(header).title(title).pageSize(pageSize).timeout(timeout, timeoutAnswer);
+        dialogs.nameList.addAll(nameList);
+        dialogs.labelList.addAll(labelList);
+        dialogs.promptList.addAll(promptList);
+        dialogs.textList.addAll(textList);
+        return dialogs;
+    }
+
+    /**
+     * 取得擁有對話框的Window。
+     *
+     * @return 傳回擁有對話框的Window，若沒有設定或是已被回收，回傳null
+     */
+    private Window getOwner() {
+        return owner == null ? null : owner.get();
+    }
+
+    /**
+     * 取得實際要播放的音效。
+     *
+     * @return 傳回實際要播放的音效
+     */
+    private DialogAudio getActuallyAudio() {
+        DialogAudio actuallyAudio = audio;
+        if (audio == DialogAudio.DEFAULT) {
+            actuallyAudio = DialogAudio.SLUMP;
+        }
+        return actuallyAudio;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javafx.scene.image.Image;
+
+/**
+ * 對話框共用的圖片快取。每張圖片依照(來源, 大小, 輸出縮放比例)只會解碼一次，所有對話框共用同一個Image物件；快取中的圖片總大小有上限，超過時會先移除最久沒有使用的圖片。此類別可以在任意執行緒上使用。
+ *
+ * @author Magic Len
+ */
+final class ImageCache {
+
+    // -----內部類別-----
+    /**
+     * 快取的鍵。
+     */
+    private static final class Key {
+
+        private final String url;
+        private final double size;
+        private final double scale;
+
+        Key(final String url, final double size, final double scale) {
+            this.url = url;
+            this.size = size;
+            this.scale = scale;
+        }
+
+        @Override
+        public int hashCode() {
+            return (url.hashCode() * 31 + Double.hashCode(size)) * 31 + Double.hashCode(scale);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return size == other.size && scale == other.scale && Objects.equals(url, other.url);
+        }
+    }
+
+    /**
+     * 快取的圖片與已計入的記憶體大小。
+     */
+    private static final class Entry {
+
+        private final Image image;
+        private long weight;
+
+        Entry(final Image image) {
+            this.image = image;
+        }
+    }
+
+    // -----類別常數-----
+    private static final long MAX_BYTES = 16L * 1024 * 1024;
+    private static final LinkedHashMap<Key, Entry> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+    // -----類別變數-----
+    private static long bytes;
+
+    // -----類別方法-----
+    /**
+     * 取得解碼後的圖片。本機的圖片會直接解碼，其他來源(例如http)的圖片則在背景下載與解碼，下載完成前對話框會先顯示空白的圖片。解碼時不會鎖住快取，因此不會擋住其他對話框的建立。
+     *
+     * @param url 傳入圖片的網址
+     * @param size 傳入圖片的大小，若小於等於0則使用圖片原本的大小
+     * @param scale 傳入輸出的縮放比例
+     * @return 傳回圖片
+     */
+    static Image get(final String url, final double size, final double scale) {
+        //縮放比例只取到小數點後兩位，避免浮點誤差產生大量幾乎相同的圖片
+        final double roundedScale = size > 0 ? Math.max(1, Math.round(scale * 100) / 100.0) : 1;
+        final Key key = new Key(url, size, roundedScale);
+        synchronized (CACHE) {
+            final Entry entry = CACHE.get(key);
+            if (entry != null) {
+                return entry.image;
+            }
+        }
+        final boolean background = !isLocal(url);
+        final Image image;
+        if (size > 0) {
+            final double pixels = Math.ceil(size * roundedScale);
+            image = new Image(url, pixels, pixels, true, true, background);
+        } else {
+            image = new Image(url, background);
+        }
+        if (image.isError()) {
+            //載入失敗的圖片不放入快取，下次再重新嘗試
+            return image;
+        }
+        final Entry entry = new Entry(image);
+        synchronized (CACHE) {
+            //其他執行緒可能已經先解碼了同一張圖片
+            final Entry existing = CACHE.get(key);
+            if (existing != null) {
+                return existing.image;
+            }
+            CACHE.put(key, entry);
+        }
+        if (background) {
+            image.progressProperty().addListener((observable, oldValue, newValue) -> account(key, entry));
+            image.errorProperty().addListener((observable, oldValue, newValue) -> account(key, entry));
+        }
+        account(key, entry);
+        return image;
+    }
+
+    /**
+     * 判斷圖片是否來自本機，本機的圖片可以直接解碼。
+     *
+     * @param url 傳入圖片的網址
+     * @return 傳回圖片是否來自本機
+     */
+    private static boolean isLocal(final String url) {
+        return url.startsWith("file:") || url.startsWith("jar:file:") || url.startsWith("jrt:");
+    }
+
+    /**
+     * 圖片載入完成後計入佔用的記憶體，並移除超過上限的舊圖片。載入失敗的圖片會從快取中移除。重複呼叫不會重複計算。
+     *
+     * @param key 傳入快取的鍵
+     * @param entry 傳入快取的圖片
+     */
+    private static void account(final Key key, final Entry entry) {
+        final Image image = entry.image;
+        synchronized (CACHE) {
+            if (CACHE.get(key) != entry) {
+                return;
+            }
+            if (image.isError()) {
+                CACHE.remove(key);
+                bytes -= entry.weight;
+                return;
+            }
+            if (entry.weight != 0 || image.getProgress() < 1) {
+                return;
+            }
+            entry.weight = weightOf(image);
+            bytes += entry.weight;
+            final Iterator<Map.Entry<Key, Entry>> iterator = CACHE.entrySet().iterator();
+            while (bytes > MAX_BYTES && CACHE.size() > 1 && iterator.hasNext()) {
+                final Map.Entry<Key, Entry> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                bytes -= eldest.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 計算圖片解碼後佔用的記憶體。
+     *
+     * @param image 傳入圖片
+     * @return 傳回佔用的位元組數
+     */
+    private static long weightOf(final Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private ImageCache() {
+
+    }
+}
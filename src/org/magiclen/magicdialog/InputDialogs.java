@@ -17,9 +17,11 @@
  */
 package org.magiclen.magicdialog;
 
+import java.lang.ref.WeakReference;
 import java.util.Optional;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Labeled;
 import javafx.scene.control.TextField;
@@ -27,6 +29,7 @@ import javafx.scene.control.TextInputDialog;
 import javafx.scene.layout.Pane;
 import javafx.scene.text.Font;
 import javafx.stage.Window;
+import javafx.util.Duration;
 
 /**
  * 輸入對話框設定類別，若要建立出對話框必須使用create方法。
@@ -53,7 +56,7 @@ public class InputDialogs implements Cloneable {
     }
 
     // -----物件變數-----
-    private Window owner;
+    private WeakReference<Window> owner;
     private String title = "Title";
     private String message = null;
     private String header = null;
@@ -61,6 +64,14 @@ public class InputDialogs implements Cloneable {
     private double fontSize = FONT_SIZE;
     private String fontFamily = FONT_FAMILY;
     private DialogAudio audio = DialogAudio.DEFAULT;
+    private DialogGraphic graphic = null;
+    private Duration timeout = null;
+    private ButtonType timeoutAnswer = null;
+    private String rememberKey = null;
+    private AsyncValidator<? super String> validator = null;
+    private Duration validationDelay = AsyncValidation.DEFAULT_DELAY;
+    private SuggestionProvider suggestionProvider = null;
+    private int suggestionLimit = Autocomplete.DEFAULT_LIMIT;
 
     // -----建構子-----
     /**
@@ -100,32 +111,87 @@ public class InputDialogs implements Cloneable {
      * @return 傳回對話框
      */
     public Dialog createDialog() {
+        return createDialog(null);
+    }
+
+    /**
+     * 建立對話框。
+     *
+     * @param type 傳入輸入的文字要轉換成的型態，文字無法轉換時確定按鈕會被停用，若為null則不檢查
+     * @return 傳回對話框
+     */
+    private Dialog createDialog(final Class<?> type) {
+        final long startTime = System.nanoTime();
         final Font font = new Font(fontFamily, fontSize);
 
         final TextInputDialog dialog = new TextInputDialog(text);
-        dialog.initOwner(owner);
+        dialog.initOwner(getOwner());
         dialog.setTitle(title);
         dialog.setHeaderText(header);
+        if (graphic != null) {
+            dialog.setGraphic(graphic.createNode(getOwner()));
+        }
         dialog.setContentText(message);
 
+        //驗證輸入的內容，需要轉換時先檢查能否轉換，再交給驗證器
+        if (type == null) {
+            AsyncValidation.install(dialog, validator, validationDelay, dialog.getEditor()::getText, dialog.getEditor().textProperty());
+        } else {
+            final AsyncValidator<? super String> userValidator = validator;
+            final AsyncValidator<String> convertingValidator = value -> {
+                final String error = ResultBinding.check(type, value);
+                if (error != null || userValidator == null) {
+                    return error;
+                }
+                return userValidator.validate(value);
+            };
+            AsyncValidation.install(dialog, convertingValidator, validationDelay, dialog.getEditor()::getText, dialog.getEditor().textProperty());
+        }
+
+        //自動完成的建議
+        Autocomplete.install(dialog, dialog.getEditor(), suggestionProvider, suggestionLimit, font);
+
+        //記住使用者的決定
+        RememberedDecisions.install(dialog, rememberKey, font);
+
         //設定標籤文字大小與高度
         changeFontSize(font, dialog.getDialogPane());
 
+        //逾時自動回應
+        DialogTimeouts.install(dialog, timeout, timeoutAnswer);
+
         //加入音效
+        final DialogAudio actuallyAudio = getActuallyAudio();
         dialog.setOnShown(e -> {
-            playAudio();
+            DialogAudio.playAudio(actuallyAudio);
         });
 
+        //記錄監控資料
+        DialogMetrics.track(getClass(), dialog, startTime);
+
         return dialog;
     }
 
     /**
      * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行，如果要取得對話框物件的參考需使用createDialog方法。
      *
-     * @return 傳回使用者輸入的文字，如果沒有輸入，回傳null
+     * @return 傳回使用者輸入的文字，如果沒有輸入，回傳null。若有記住的決定，則不會顯示對話框，直接傳回記住的文字
      */
     public String showAndWait() {
-        final Dialog dialog = createDialog();
+        final String rememberedValue = getRememberedValue();
+        if (rememberedValue != null) {
+            return rememberedValue;
+        }
+        return showAndWait(createDialog());
+    }
+
+    /**
+     * 顯示對話框，此方法之後的程式將會暫時停止執行。
+     *
+     * @param dialog 傳入對話框
+     * @return 傳回使用者輸入的文字，如果沒有輸入，回傳null
+     */
+    private String showAndWait(final Dialog dialog) {
         final Optional<String> buttonTypeOpt = dialog.showAndWait();
         if (buttonTypeOpt.isPresent()) {
             return buttonTypeOpt.get();
@@ -134,13 +200,32 @@ public class InputDialogs implements Cloneable {
     }
 
     /**
-     * 設定擁有對話框的Window。
+     * 顯示對話框並播放出音效，此方法之後的程式將會暫時停止執行。使用者輸入的文字會轉換成指定的型態，轉換方法會依序使用型態的靜態valueOf(String)方法、parse方法或是接受String的建構子，並且只會解析一次。文字無法轉換時，確定按鈕會被停用，錯誤訊息會顯示在輸入方塊下方；轉換方法會在背景執行緒上被呼叫。空白的文字會轉換成null，基本型態則不接受空白的文字。
+     *
+     * @param <T> 傳入結果的型態
+     * @param type 傳入結果的型態，例如Integer、BigDecimal、LocalDate或是列舉
+     * @return 傳回轉換後的值，如果沒有輸入，回傳null。若有記住的決定且可以轉換，則不會顯示對話框，直接傳回轉換後的值
+     */
+    public <T> T showAndWait(final Class<T> type) {
+        String value = getRememberedValue();
+        //記住的文字無法轉換時，重新詢問使用者
+        if (value == null || ResultBinding.check(type, value) != null) {
+            value = showAndWait(createDialog(type));
+            if (value == null) {
+                return null;
+            }
+        }
+        return ResultBinding.convert(type, value);
+    }
+
+    /**
+     * 設定擁有對話框的Window。對話框設定只會弱參考這個Window，因此長期保存的對話框設定不會讓已關閉的Window無法被回收。
      *
      * @param owner 傳入擁有對話框的Window
      * @return 再把對話框設定傳回
      */
     public InputDialogs owner(final Window owner) {
-        this.owner = owner;
+        this.owner = owner == null ? null : new WeakReference<>(owner);
         return this;
     }
 
@@ -225,6 +310,87 @@ public class InputDialogs implements Cloneable {
         return this;
     }
 
+    /**
+     * 設定對話框的圖片。
+     *
+     * @param graphic 傳入對話框的圖片，若為null則使用預設的圖片
+     * @return 再把對話框設定傳回
+     */
+    public InputDialogs graphic(final DialogGraphic graphic) {
+        this.graphic = graphic;
+        return this;
+    }
+
+    /**
+     * 設定對話框的逾時時間。對話框顯示超過逾時時間使用者仍未回應時，將自動按下指定的按鈕並關閉對話框。若按下的是確定按鈕，將會傳回目前輸入的文字。
+     *
+     * @param timeout 傳入逾時時間，若為null則不會逾時
+     * @param defaultAnswer 傳入逾時時要按下的按鈕，若對話框沒有這個按鈕或是這個按鈕被停用(例如輸入尚未通過驗證)，則以取消按鈕關閉對話框，沒有取消按鈕時以這個按鈕作為結果關閉對話框
+     * @return 再把對話框設定傳回
+     */
+    public InputDialogs timeout(final Duration timeout, final ButtonType defaultAnswer) {
+        this.timeout = timeout;
+        this.timeoutAnswer = defaultAnswer;
+        return this;
+    }
+
+    /**
+     * 讓對話框可以記住使用者的決定。對話框中會多出「不要再問」的選項，使用者勾選後按下確定按鈕時，輸入的文字將會存入DecisionStore，之後使用showAndWait方法時不會再顯示對話框，而是直接傳回記住的文字。
+     *
+     * @param key 傳入決定的名稱，若為null則不會記住
+     * @return 再把對話框設定傳回
+     */
+    public InputDialogs rememberAs(final String key) {
+        this.rememberKey = key;
+        return this;
+    }
+
+    /**
+     * 設定輸入內容的驗證器。輸入內容改變並停頓300毫秒後，驗證器會在背景執行緒上驗證輸入的文字，在最新的內容通過驗證之前，確定按鈕會被停用，錯誤訊息會顯示在輸入方塊下方。
+     *
+     * @param validator 傳入驗證器，若為null則不驗證
+     * @return 再把對話框設定傳回
+     */
+    public InputDialogs validator(final AsyncValidator<? super String> validator) {
+        return validator(validator, AsyncValidation.DEFAULT_DELAY);
+    }
+
+    /**
+     * 設定輸入內容的驗證器。輸入內容改變並停頓指定的時間後，驗證器會在背景執行緒上驗證輸入的文字，在最新的內容通過驗證之前，確定按鈕會被停用，錯誤訊息會顯示在輸入方塊下方。
+     *
+     * @param validator 傳入驗證器，若為null則不驗證
+     * @param delay 傳入輸入停頓多久後開始驗證
+     * @return 再把對話框設定傳回
+     */
+    public InputDialogs validator(final AsyncValidator<? super String> validator, final Duration delay) {
+        this.validator = validator;
+        this.validationDelay = delay == null ? AsyncValidation.DEFAULT_DELAY : delay;
+        return this;
+    }
+
+    /**
+     * 設定自動完成的建議來源。使用者輸入時，會在輸入方塊下方的清單中顯示以輸入文字開頭的建議，最多50個。建議會依照輸入的文字快取，若較短的輸入已經取得所有的建議，繼續輸入時會直接從快取中篩選，不會再次向建議來源查詢。快取的建議在5分鐘後失效，也可以用建議來源的invalidateSuggestions方法清除。
+     *
+     * @param provider 傳入建議來源，若為null則不顯示建議
+     * @return 再把對話框設定傳回
+     */
+    public InputDialogs suggestions(final SuggestionProvider provider) {
+        return suggestions(provider, Autocomplete.DEFAULT_LIMIT);
+    }
+
+    /**
+     * 設定自動完成的建議來源。使用者輸入時，會在輸入方塊下方的清單中顯示以輸入文字開頭的建議。建議會依照輸入的文字快取，若較短的輸入已經取得所有的建議，繼續輸入時會直接從快取中篩選，不會再次向建議來源查詢。快取的建議在5分鐘後失效，也可以用建議來源的invalidateSuggestions方法清除。
+     *
+     * @param provider 傳入建議來源，若為null則不顯示建議
+     * @param limit 傳入每次查詢的建議數量上限
+     * @return 再把對話框設定傳回
+     */
+    public InputDialogs suggestions(final SuggestionProvider provider, final int limit) {
+        this.suggestionProvider = provider;
+        this.suggestionLimit = Math.max(1, limit);
+        return this;
+    }
+
     /**
      * 複製對話框設定。
      *
@@ -233,19 +399,42 @@ public class InputDialogs implements Cloneable {
     @Override
     public Object clone() {
         final InputDialogs dialogs = InputDialogs.create();
-        dialogs.audio(audio).fontSize(fontSize).fontFamily(fontFamily).owner(owner).message(message).header(header).title(title).text(text);
+        dialogs.audio(audio).graphic(graphic).fontSize(fontSize).fontFamily(fontFamily).owner(getOwner()).message(message).header(header).title(title).text(text).timeout(timeout, timeoutAnswer).validator(validator, validationDelay).suggestions(suggestionProvider, suggestionLimit).rememberAs(rememberKey);
         return dialogs;
     }
 
     /**
-     * 播放音效。
+     * 取得記住的決定。
+     *
+     * @return 傳回記住的文字，若沒有記住，回傳null
+     */
+    private String getRememberedValue() {
+        if (rememberKey == null) {
+            return null;
+        }
+        return DecisionStore.get(rememberKey);
+    }
+
+    /**
+     * 取得擁有對話框的Window。
+     *
+     * @return 傳回擁有對話框的Window，若沒有設定或是已被回收，回傳null
+     */
+    private Window getOwner() {
+        return owner == null ? null : owner.get();
+    }
+
+    /**
+     * 取得實際要播放的音效。
+     *
+     * @return 傳回實際要播放的音效
      */
-    private void playAudio() {
+    private DialogAudio getActuallyAudio() {
         DialogAudio actuallyAudio = audio;
         if (audio == DialogAudio.DEFAULT) {
             actuallyAudio = DialogAudio.SLUMP;
         }
-        DialogAudio.playAudio(actuallyAudio);
+        return actuallyAudio;
     }
 
 }
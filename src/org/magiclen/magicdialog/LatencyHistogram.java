@@ -0,0 +1,144 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 記錄延遲時間的直方圖。數值依照二的次方分成多個區段，每個區段再線性分成32格，因此不論數值大小，相對誤差都在約3%以內，且記錄時不需要鎖定。
+ *
+ * @author Magic Len
+ */
+final class LatencyHistogram {
+
+    // -----類別常數-----
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    // -----類別方法-----
+    /**
+     * 取得數值所在的格子索引。
+     *
+     * @param value 傳入數值
+     * @return 傳回格子索引
+     */
+    private static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = highestBit - SUB_BUCKET_BITS + 1;
+        return SUB_BUCKET_COUNT + (highestBit - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * 取得格子所代表的最大數值。
+     *
+     * @param index 傳入格子索引
+     * @return 傳回數值
+     */
+    private static long highestValueOf(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int offset = index - SUB_BUCKET_COUNT;
+        final int shift = offset / HALF_SUB_BUCKET_COUNT + 1;
+        final long subBucket = offset % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    // -----物件常數-----
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+
+    // -----物件方法-----
+    /**
+     * 記錄一個數值。
+     *
+     * @param value 傳入數值，小於0時視為0
+     */
+    void record(final long value) {
+        final long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        totalCount.increment();
+        totalValue.add(v);
+    }
+
+    /**
+     * 清除所有記錄。
+     */
+    void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalValue.reset();
+    }
+
+    /**
+     * 取得目前記錄的統計資料。
+     *
+     * @param unit 傳入數值的單位換算成毫秒時要除的數
+     * @return 傳回統計資料
+     */
+    LatencyStats snapshot(final double unit) {
+        final long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        int maxIndex = -1;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            final long c = counts.get(i);
+            snapshot[i] = c;
+            if (c > 0) {
+                count += c;
+                maxIndex = i;
+            }
+        }
+        if (count == 0) {
+            return new LatencyStats(0, 0, 0, 0, 0, 0);
+        }
+        final double mean = (double) totalValue.sum() / Math.max(1, totalCount.sum()) / unit;
+        final long p50Rank = (long) Math.ceil(count * 0.5);
+        final long p90Rank = (long) Math.ceil(count * 0.9);
+        final long p99Rank = (long) Math.ceil(count * 0.99);
+        double p50 = 0, p90 = 0, p99 = 0;
+        long seen = 0;
+        for (int i = 0; i <= maxIndex; ++i) {
+            final long c = snapshot[i];
+            if (c == 0) {
+                continue;
+            }
+            final long before = seen;
+            seen += c;
+            final double value = highestValueOf(i) / unit;
+            if (before < p50Rank && seen >= p50Rank) {
+                p50 = value;
+            }
+            if (before < p90Rank && seen >= p90Rank) {
+                p90 = value;
+            }
+            if (before < p99Rank && seen >= p99Rank) {
+                p99 = value;
+            }
+        }
+        return new LatencyStats(count, mean, p50, p90, p99, highestValueOf(maxIndex) / unit);
+    }
+}
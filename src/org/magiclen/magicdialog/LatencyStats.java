@@ -0,0 +1,117 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * 延遲時間的統計資料，時間的單位皆為毫秒。百分位數與最大值是所在直方圖格子的上限，誤差約3%。
+ *
+ * @author Magic Len
+ */
+public final class LatencyStats {
+
+    // -----物件常數-----
+    private final long count;
+    private final double mean;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double max;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param count 傳入記錄的次數
+     * @param mean 傳入平均值
+     * @param p50 傳入第50百分位數
+     * @param p90 傳入第90百分位數
+     * @param p99 傳入第99百分位數
+     * @param max 傳入最大值
+     */
+    @ConstructorProperties({"count", "mean", "p50", "p90", "p99", "max"})
+    public LatencyStats(final long count, final double mean, final double p50, final double p90, final double p99, final double max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得記錄的次數。
+     *
+     * @return 傳回記錄的次數
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 取得平均值。
+     *
+     * @return 傳回平均值
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * 取得第50百分位數。
+     *
+     * @return 傳回第50百分位數
+     */
+    public double getP50() {
+        return p50;
+    }
+
+    /**
+     * 取得第90百分位數。
+     *
+     * @return 傳回第90百分位數
+     */
+    public double getP90() {
+        return p90;
+    }
+
+    /**
+     * 取得第99百分位數。
+     *
+     * @return 傳回第99百分位數
+     */
+    public double getP99() {
+        return p99;
+    }
+
+    /**
+     * 取得最大值。
+     *
+     * @return 傳回最大值
+     */
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, max=%.3fms", count, mean, p50, p90, p99, max);
+    }
+}
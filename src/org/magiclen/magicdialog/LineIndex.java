@@ -0,0 +1,280 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 大量文字的行索引。索引在背景執行緒上建立，建立的過程中已經找到的行就可以讀取，每一行只有在被讀取時才會轉換成字串。
+ *
+ * @author Magic Len
+ */
+abstract class LineIndex {
+
+    // -----類別常數-----
+    /**
+     * 每一行最多轉換的字元數，過長的行會被截斷。
+     */
+    static final int MAX_LINE_LENGTH = 4096;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // -----類別方法-----
+    /**
+     * 建立文字的行索引。
+     *
+     * @param text 傳入文字
+     * @return 傳回行索引
+     */
+    static LineIndex of(final CharSequence text) {
+        return new TextIndex(text);
+    }
+
+    /**
+     * 建立檔案的行索引。檔案會以唯讀的方式映射到記憶體中，並以UTF-8編碼讀取。
+     *
+     * @param path 傳入檔案路徑
+     * @return 傳回行索引
+     * @throws IOException 無法開啟檔案時拋出例外
+     */
+    static LineIndex of(final Path path) throws IOException {
+        return new MappedIndex(path);
+    }
+
+    // -----物件變數-----
+    /**
+     * 每一行開始的位置，只有建立索引的執行緒會寫入。
+     */
+    private volatile long[] starts = new long[INITIAL_CAPACITY];
+    /**
+     * 已經確定結尾的行數，寫入starts之後才會增加，因此讀取的執行緒可以安全地讀取這些行。
+     */
+    private volatile int lineCount;
+    /**
+     * 已經寫入starts的數量。
+     */
+    private volatile int startCount;
+    private volatile boolean complete;
+
+    // -----物件方法-----
+    /**
+     * 取得文字的長度。
+     *
+     * @return 傳回文字的長度
+     */
+    abstract long length();
+
+    /**
+     * 尋找換行字元。
+     *
+     * @param from 傳入開始尋找的位置
+     * @param to 傳入結束尋找的位置
+     * @return 傳回換行字元的位置，若找不到則傳回-1
+     */
+    abstract long indexOfNewline(long from, long to);
+
+    /**
+     * 取得一段文字。
+     *
+     * @param start 傳入開始的位置
+     * @param end 傳入結束的位置
+     * @return 傳回文字，最多MAX_LINE_LENGTH個字元
+     */
+    abstract String text(long start, long end);
+
+    /**
+     * 建立索引。此方法應在背景執行緒上執行，執行緒被中斷時會停止建立。
+     *
+     * @param progress 傳入每找到一批行時要執行的程式
+     * @param interval 傳入執行progress的最短間隔時間(毫秒)
+     */
+    void build(final Runnable progress, final long interval) {
+        final long length = length();
+        final long step = 1 << 20;
+        long[] localStarts = starts;
+        int count = 1;
+        long position = 0;
+        long lastProgress = System.currentTimeMillis();
+        while (position < length) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            final long to = Math.min(length, position + step);
+            long from = position;
+            long newline;
+            while ((newline = indexOfNewline(from, to)) >= 0) {
+                if (count == localStarts.length) {
+                    localStarts = Arrays.copyOf(localStarts, count * 2);
+                    starts = localStarts;
+                }
+                localStarts[count++] = newline + 1;
+                from = newline + 1;
+            }
+            position = to;
+            final long now = System.currentTimeMillis();
+            if (now - lastProgress >= interval) {
+                lastProgress = now;
+                startCount = count;
+                lineCount = count - 1;
+                progress.run();
+            }
+        }
+        //文字以換行結尾時，不計算最後的空行
+        final boolean trailingNewline = count > 1 && localStarts[count - 1] == length;
+        startCount = count;
+        lineCount = length == 0 ? 0 : (trailingNewline ? count - 1 : count);
+        complete = true;
+        progress.run();
+    }
+
+    /**
+     * 取得目前已經索引的行數。
+     *
+     * @return 傳回行數
+     */
+    int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * 判斷索引是否已經建立完成。
+     *
+     * @return 傳回索引是否已經建立完成
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * 取得一行文字，不包含換行字元。
+     *
+     * @param index 傳入行的索引
+     * @return 傳回一行文字
+     */
+    String line(final int index) {
+        final int count = lineCount;
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, count));
+        }
+        final int written = startCount;
+        final long[] localStarts = starts;
+        final long start = localStarts[index];
+        final long end = index + 1 < written ? localStarts[index + 1] - 1 : length();
+        final String text = text(start, end);
+        //移除Windows換行的\r
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    // -----內部類別-----
+    /**
+     * 記憶體中文字的行索引。
+     */
+    private static final class TextIndex extends LineIndex {
+
+        private final CharSequence text;
+
+        TextIndex(final CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        long length() {
+            return text.length();
+        }
+
+        @Override
+        long indexOfNewline(final long from, final long to) {
+            for (int i = (int) from; i < to; ++i) {
+                if (text.charAt(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        String text(final long start, final long end) {
+            return text.subSequence((int) start, (int) Math.min(end, start + MAX_LINE_LENGTH)).toString();
+        }
+    }
+
+    /**
+     * 映射到記憶體中的檔案的行索引。超過1GiB的檔案會分成多段映射。Java沒有提供釋放映射的公開方法，映射要等到索引被GC回收後才會釋放，在Windows上檔案在那之前都會被鎖定，無法刪除或是覆寫。
+     */
+    private static final class MappedIndex extends LineIndex {
+
+        private static final int SEGMENT_BITS = 30;
+        private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+        private final MappedByteBuffer[] segments;
+        private final long length;
+
+        MappedIndex(final Path path) throws IOException {
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                length = channel.size();
+                segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+                for (int i = 0; i < segments.length; ++i) {
+                    final long offset = (long) i << SEGMENT_BITS;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, length - offset));
+                }
+            }
+        }
+
+        /**
+         * 取得一個位元組。
+         *
+         * @param position 傳入位置
+         * @return 傳回位元組
+         */
+        private byte get(final long position) {
+            return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+        }
+
+        @Override
+        long length() {
+            return length;
+        }
+
+        @Override
+        long indexOfNewline(final long from, final long to) {
+            for (long i = from; i < to; ++i) {
+                if (get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        String text(final long start, final long end) {
+            //UTF-8每個字元最多4個位元組
+            final int size = (int) Math.min(end - start, MAX_LINE_LENGTH * 4L);
+            final byte[] bytes = new byte[size];
+            for (int i = 0; i < size; ++i) {
+                bytes[i] = get(start + i);
+            }
+            final String text = new String(bytes, StandardCharsets.UTF_8);
+            return text.length() > MAX_LINE_LENGTH ? text.substring(0, MAX_LINE_LENGTH) : text;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.text.Font;
+import javafx.stage.Window;
+
+/**
+ * 已顯示的一般對話框，可以在任意執行緒上修改對話框的內容。同一個畫面更新週期內的多次修改會合併成一次套用，且不需要重新建立對話框。
+ *
+ * @author Magic Len
+ */
+public final class LiveDialog {
+
+    // -----類別常數-----
+    private static final int MESSAGE = 1;
+    private static final int HEADER = 1 << 1;
+    private static final int TITLE = 1 << 2;
+    private static final int TYPE = 1 << 3;
+    private static final int BUTTONS = 1 << 4;
+    private static final int CLOSE = 1 << 5;
+
+    // -----物件常數-----
+    private final Alert dialog;
+    private final Font font;
+    private final AtomicInteger changes = new AtomicInteger();
+
+    // -----物件變數-----
+    private volatile String message;
+    private volatile String header;
+    private volatile String title;
+    private volatile Dialogs.Type type;
+    private volatile ButtonType[] buttons;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param dialog 傳入對話框
+     * @param font 傳入對話框使用的字型
+     */
+    LiveDialog(final Alert dialog, final Font font) {
+        this.dialog = dialog;
+        this.font = font;
+    }
+
+    // -----物件方法-----
+    /**
+     * 修改對話框的訊息。
+     *
+     * @param message 傳入對話框的訊息
+     * @return 再把對話框傳回
+     */
+    public LiveDialog message(final String message) {
+        this.message = message;
+        change(MESSAGE);
+        return this;
+    }
+
+    /**
+     * 修改對話框的訊息標題。
+     *
+     * @param header 傳入對話框的訊息標題
+     * @return 再把對話框傳回
+     */
+    public LiveDialog header(final String header) {
+        this.header = header;
+        change(HEADER);
+        return this;
+    }
+
+    /**
+     * 修改對話框的標題。
+     *
+     * @param title 傳入對話框的標題
+     * @return 再把對話框傳回
+     */
+    public LiveDialog title(final String title) {
+        this.title = title;
+        change(TITLE);
+        return this;
+    }
+
+    /**
+     * 修改對話框的類型，將會影響到對話框顯示出來的圖片。
+     *
+     * @param type 傳入對話框的類型
+     * @return 再把對話框傳回
+     */
+    public LiveDialog type(final Dialogs.Type type) {
+        this.type = type == null ? Dialogs.Type.NONE : type;
+        change(TYPE);
+        return this;
+    }
+
+    /**
+     * 替換對話框的按鈕。原本使用addButton方法設定的按鈕事件將不再有效，可以使用getDialog方法取得對話框後再處理使用者按下的按鈕。
+     *
+     * @param buttons 傳入新的按鈕
+     * @return 再把對話框傳回
+     */
+    public LiveDialog buttons(final ButtonType... buttons) {
+        this.buttons = buttons.clone();
+        change(BUTTONS);
+        return this;
+    }
+
+    /**
+     * 關閉對話框。若對話框沒有取消按鈕，對話框的結果為ButtonType.CLOSE。
+     */
+    public void close() {
+        change(CLOSE);
+    }
+
+    /**
+     * 取得對話框。對話框只能在JavaFX的應用程式執行緒上存取。
+     *
+     * @return 傳回對話框
+     */
+    public Alert getDialog() {
+        return dialog;
+    }
+
+    /**
+     * 記錄修改，若這是目前更新週期內的第一個修改，則安排在JavaFX的應用程式執行緒上套用。
+     *
+     * @param change 傳入修改的項目
+     */
+    private void change(final int change) {
+        if (changes.getAndUpdate(current -> current | change) == 0) {
+            Platform.runLater(this::apply);
+        }
+    }
+
+    /**
+     * 套用所有尚未套用的修改。
+     */
+    private void apply() {
+        final int pending = changes.getAndSet(0);
+        if ((pending & CLOSE) != 0) {
+            //沒有取消按鈕的對話框直接呼叫close方法不會關閉
+            DialogTimeouts.closeWith(dialog, ButtonType.CLOSE);
+            return;
+        }
+        if ((pending & MESSAGE) != 0) {
+            dialog.setContentText(message);
+        }
+        if ((pending & HEADER) != 0) {
+            dialog.setHeaderText(header);
+        }
+        if ((pending & TITLE) != 0) {
+            dialog.setTitle(title);
+        }
+        if ((pending & TYPE) != 0) {
+            //沒有自訂按鈕時，更改類型會替換成該類型的預設按鈕
+            dialog.setAlertType(Dialogs.toAlertType(type));
+        }
+        if ((pending & BUTTONS) != 0) {
+            dialog.getButtonTypes().setAll(buttons);
+        }
+        if ((pending & (TYPE | BUTTONS)) != 0) {
+            Dialogs.changeButtonFont(font, dialog);
+        }
+        if ((pending & (MESSAGE | HEADER)) != 0) {
+            //新建立的訊息標題使用預設的字型，需要重新設定
+            Dialogs.changeLabelFont(font, dialog);
+        }
+
+        //依照新的內容調整對話框大小
+        final Window window = dialog.getDialogPane().getScene().getWindow();
+        if (window != null && window.isShowing()) {
+            window.sizeToScene();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import javafx.scene.Node;
+import javafx.scene.control.ButtonBar.ButtonData;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.DialogPane;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+/**
+ * 讓對話框可以記住使用者的決定。
+ *
+ * @author Magic Len
+ */
+final class RememberedDecisions {
+
+    // -----類別常數-----
+    private static final String REMEMBER_TEXT = "Don't ask again";
+
+    // -----類別方法-----
+    /**
+     * 在對話框中加入「不要再問」的選項。使用者勾選後做出的決定將會存入DecisionStore。
+     *
+     * @param dialog 傳入對話框
+     * @param key 傳入決定的名稱，若為null則不做任何事
+     * @param font 傳入字型
+     */
+    static void install(final Dialog<?> dialog, final String key, final Font font) {
+        if (key == null) {
+            return;
+        }
+        final DialogPane dialogPane = dialog.getDialogPane();
+        Node content = dialogPane.getContent();
+        if (content == null) {
+            //Alert的訊息在沒有內容節點時才會顯示，因此改用標籤顯示訊息
+            final Label lMessage = new Label();
+            //跟著對話框的訊息更新，讓之後修改訊息(例如LiveDialog)時也能顯示出來
+            lMessage.textProperty().bind(dialogPane.contentTextProperty());
+            lMessage.setWrapText(true);
+            lMessage.setFont(font);
+            lMessage.setMinHeight(Region.USE_PREF_SIZE);
+            content = lMessage;
+        }
+        final CheckBox cbRemember = new CheckBox(REMEMBER_TEXT);
+        cbRemember.setFont(font);
+        final VBox vbContent = new VBox(10, content, cbRemember);
+        vbContent.setMaxWidth(Double.MAX_VALUE);
+        dialogPane.setContent(vbContent);
+
+        dialog.resultProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue != null && cbRemember.isSelected()) {
+                final String value = encode(dialogPane, newValue);
+                if (value != null) {
+                    DecisionStore.put(key, value);
+                }
+            }
+        });
+    }
+
+    /**
+     * 將對話框的結果轉成要記住的文字。
+     *
+     * @param dialogPane 傳入對話框的DialogPane
+     * @param result 傳入對話框的結果
+     * @return 傳回要記住的文字，若不需要記住則回傳null
+     */
+    private static String encode(final DialogPane dialogPane, final Object result) {
+        if (result instanceof ButtonType) {
+            final ButtonType buttonType = (ButtonType) result;
+            final int index = dialogPane.getButtonTypes().indexOf(buttonType);
+            if (buttonType.getButtonData() == ButtonData.CANCEL_CLOSE || index < 0) {
+                //取消不算是決定
+                return null;
+            }
+            return encodeButton(index, buttonType);
+        } else if (result instanceof String) {
+            return (String) result;
+        }
+        return null;
+    }
+
+    /**
+     * 將按鈕轉成要記住的文字。按鈕上的文字會隨著語系改變，因此改用按鈕的位置與ButtonData記住。
+     *
+     * @param index 傳入按鈕在對話框中的索引
+     * @param buttonType 傳入按鈕
+     * @return 傳回要記住的文字
+     */
+    static String encodeButton(final int index, final ButtonType buttonType) {
+        return String.format("#%d:%s", index, buttonType.getButtonData().name());
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private RememberedDecisions() {
+
+    }
+}
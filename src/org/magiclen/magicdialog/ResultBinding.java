@@ -0,0 +1,547 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * 將對話框輸入的文字綁定到record或是JavaBean物件上的工具。每個類別的建構子、setter方法與文字轉換方法只會在第一次使用時解析成MethodHandle，之後的綁定都不再需要反射。文字轉換方法只會替有對應到欄位的屬性解析，因此沒有被綁定的屬性可以是任何型態。
+ * <p>
+ * 空白的文字會轉換成null，String、CharSequence與Object型態則保留空字串；基本型態無法表示沒有輸入，因此空白的文字會被視為無法轉換。record中沒有對應到欄位的元件會使用型態的預設值。
+ *
+ * @author Magic Len
+ */
+final class ResultBinding {
+
+    // -----類別常數-----
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CONVERTER_TYPE = MethodType.methodType(Object.class, String.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodHandle IDENTITY = MethodHandles.identity(String.class).asType(CONVERTER_TYPE);
+    private static final Method IS_RECORD = findClassMethod("isRecord");
+    private static final Method GET_RECORD_COMPONENTS = findClassMethod("getRecordComponents");
+
+    /**
+     * 每個類別的綁定方式。
+     */
+    private static final ClassValue<Target> TARGETS = new ClassValue<Target>() {
+        @Override
+        protected Target computeValue(final Class<?> type) {
+            return createTarget(type);
+        }
+    };
+
+    /**
+     * 每個型態將文字轉換成該型態的方法。
+     */
+    private static final ClassValue<MethodHandle> CONVERTERS = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(final Class<?> type) {
+            return createConverter(type);
+        }
+    };
+
+    // -----類別方法-----
+    /**
+     * 取得Class類別中的方法，執行環境不支援時傳回null。
+     *
+     * @param name 傳入方法名稱
+     * @return 傳回方法
+     */
+    private static Method findClassMethod(final String name) {
+        try {
+            return Class.class.getMethod(name);
+        } catch (final NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 建立綁定計畫。計畫會先將欄位名稱對應到目標類別的屬性，因此重複使用同一個計畫綁定時不需要再查詢名稱。
+     *
+     * @param <T> 目標類別
+     * @param type 傳入目標類別
+     * @param names 傳入每個欄位的名稱，若為null則依照record元件的順序綁定
+     * @return 傳回綁定計畫
+     */
+    static <T> Plan<T> plan(final Class<T> type, final String[] names) {
+        if (type == null) {
+            throw new NullPointerException("The type cannot be null.");
+        }
+        return new Plan<>(type, TARGETS.get(type), names);
+    }
+
+    /**
+     * 將文字轉換成指定的型態。
+     *
+     * @param <T> 目標型態
+     * @param type 傳入目標型態
+     * @param text 傳入文字
+     * @return 傳回轉換後的值
+     */
+    static <T> T convert(final Class<T> type, final String text) {
+        if (type == null) {
+            throw new NullPointerException("The type cannot be null.");
+        }
+        @SuppressWarnings("unchecked")
+        final T value = (T) convert(CONVERTERS.get(type), type, text, null);
+        return value;
+    }
+
+    /**
+     * 檢查文字是否能轉換成指定的型態。
+     *
+     * @param type 傳入目標型態
+     * @param text 傳入文字
+     * @return 傳回錯誤訊息，若可以轉換則傳回null
+     */
+    static String check(final Class<?> type, final String text) {
+        try {
+            convert(type, text);
+            return null;
+        } catch (final RuntimeException ex) {
+            return messageOf(ex);
+        }
+    }
+
+    /**
+     * 取得例外的訊息。
+     *
+     * @param ex 傳入例外
+     * @return 傳回例外的訊息，若沒有訊息則傳回例外的字串
+     */
+    private static String messageOf(final RuntimeException ex) {
+        return ex.getMessage() != null ? ex.getMessage() : ex.toString();
+    }
+
+    /**
+     * 使用轉換方法將文字轉換成值。空白的文字會轉換成null，基本型態則無法轉換。
+     *
+     * @param converter 傳入轉換方法
+     * @param type 傳入目標型態
+     * @param text 傳入文字
+     * @param name 傳入欄位的名稱，用來產生錯誤訊息
+     * @return 傳回轉換後的值
+     */
+    private static Object convert(final MethodHandle converter, final Class<?> type, final String text, final String name) {
+        if (text == null || (text.isEmpty() && converter != IDENTITY)) {
+            if (type.isPrimitive()) {
+                throw new IllegalArgumentException(String.format("%s requires a value.", name == null ? "The input" : name));
+            }
+            return null;
+        }
+        try {
+            return (Object) converter.invokeExact(text);
+        } catch (final Throwable ex) {
+            throw new IllegalArgumentException(String.format("Cannot convert \"%s\"%s to %s.", text, name == null ? "" : " of " + name, type.getName()), ex);
+        }
+    }
+
+    /**
+     * 取得型態的預設值。
+     *
+     * @param type 傳入型態
+     * @return 傳回型態的預設值
+     */
+    private static Object defaultValue(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0F;
+        } else {
+            return 0D;
+        }
+    }
+
+    /**
+     * 將文字轉換成字元。
+     *
+     * @param text 傳入文字
+     * @return 傳回文字的第一個字元
+     */
+    private static char parseChar(final String text) {
+        if (text.length() != 1) {
+            throw new IllegalArgumentException("The text must contain exactly one character.");
+        }
+        return text.charAt(0);
+    }
+
+    /**
+     * 建立將文字轉換成指定型態的方法。依序嘗試靜態的valueOf(String)、parse(CharSequence)、parse(String)方法以及接受String的建構子。
+     *
+     * @param type 傳入目標型態
+     * @return 傳回型態為(String)Object的MethodHandle
+     */
+    private static MethodHandle createConverter(final Class<?> type) {
+        try {
+            if (type == String.class || type == Object.class || type == CharSequence.class) {
+                return IDENTITY;
+            }
+            if (type == char.class || type == Character.class) {
+                return LOOKUP.findStatic(ResultBinding.class, "parseChar", MethodType.methodType(char.class, String.class)).asType(CONVERTER_TYPE);
+            }
+            if (type.isPrimitive()) {
+                final Class<?> wrapper = MethodType.methodType(type).wrap().returnType();
+                final String parser = type == boolean.class ? "parseBoolean" : "parse" + Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+                return LOOKUP.findStatic(wrapper, parser, MethodType.methodType(type, String.class)).asType(CONVERTER_TYPE);
+            }
+            if (type.isEnum()) {
+                return MethodHandles.insertArguments(LOOKUP.findStatic(Enum.class, "valueOf", MethodType.methodType(Enum.class, Class.class, String.class)), 0, type).asType(CONVERTER_TYPE);
+            }
+            final MethodHandle valueOf = findFactory(type, "valueOf", String.class);
+            if (valueOf != null) {
+                return valueOf;
+            }
+            final MethodHandle parseCharSequence = findFactory(type, "parse", CharSequence.class);
+            if (parseCharSequence != null) {
+                return parseCharSequence;
+            }
+            final MethodHandle parseString = findFactory(type, "parse", String.class);
+            if (parseString != null) {
+                return parseString;
+            }
+            return LOOKUP.unreflectConstructor(type.getConstructor(String.class)).asType(CONVERTER_TYPE);
+        } catch (final NoSuchMethodException | IllegalAccessException ex) {
+            throw new IllegalArgumentException(String.format("Cannot convert text to %s.", type.getName()), ex);
+        }
+    }
+
+    /**
+     * 尋找公開的靜態工廠方法。
+     *
+     * @param type 傳入目標型態
+     * @param name 傳入方法名稱
+     * @param parameterType 傳入參數型態
+     * @return 傳回型態為(String)Object的MethodHandle，若找不到則傳回null
+     */
+    private static MethodHandle findFactory(final Class<?> type, final String name, final Class<?> parameterType) throws IllegalAccessException {
+        try {
+            final Method method = type.getMethod(name, parameterType);
+            if (!Modifier.isStatic(method.getModifiers()) || !type.isAssignableFrom(method.getReturnType())) {
+                return null;
+            }
+            return LOOKUP.unreflect(method).asType(CONVERTER_TYPE);
+        } catch (final NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 讓反射物件可以被存取，若無法存取則保持原樣。
+     *
+     * @param <A> 反射物件的型態
+     * @param object 傳入反射物件
+     * @return 傳回反射物件
+     */
+    private static <A extends AccessibleObject> A accessible(final A object) {
+        try {
+            object.setAccessible(true);
+        } catch (final RuntimeException ex) {
+            //無法存取時使用公開的存取權限
+        }
+        return object;
+    }
+
+    /**
+     * 建立類別的綁定方式。
+     *
+     * @param type 傳入目標類別
+     * @return 傳回綁定方式
+     */
+    private static Target createTarget(final Class<?> type) {
+        try {
+            if (IS_RECORD != null && (Boolean) IS_RECORD.invoke(type)) {
+                return createRecordTarget(type);
+            }
+            return createBeanTarget(type);
+        } catch (final ReflectiveOperationException ex) {
+            throw new IllegalArgumentException(String.format("Cannot bind to %s.", type.getName()), ex);
+        }
+    }
+
+    /**
+     * 建立record的綁定方式，使用標準建構子建立物件。
+     *
+     * @param type 傳入record類別
+     * @return 傳回綁定方式
+     */
+    private static Target createRecordTarget(final Class<?> type) throws ReflectiveOperationException {
+        final Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+        final int length = components.length;
+        final Class<?> componentClass = components.getClass().getComponentType();
+        final Method getName = componentClass.getMethod("getName");
+        final Method getType = componentClass.getMethod("getType");
+
+        final String[] names = new String[length];
+        final Class<?>[] types = new Class<?>[length];
+        for (int i = 0; i < length; ++i) {
+            names[i] = (String) getName.invoke(components[i]);
+            types[i] = (Class<?>) getType.invoke(components[i]);
+        }
+
+        final Constructor<?> constructor = accessible(type.getDeclaredConstructor(types));
+        final MethodHandle creator = LOOKUP.unreflectConstructor(constructor).asSpreader(Object[].class, length).asType(MethodType.methodType(Object.class, Object[].class));
+        return new Target(type, names, types, creator, null);
+    }
+
+    /**
+     * 建立JavaBean的綁定方式，使用無參數的建構子建立物件，再透過setter方法或公開的欄位設定屬性。
+     *
+     * @param type 傳入JavaBean類別
+     * @return 傳回綁定方式
+     */
+    private static Target createBeanTarget(final Class<?> type) throws ReflectiveOperationException {
+        final Map<String, Object> properties = new LinkedHashMap<>();
+        for (final Field field : type.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                properties.put(field.getName(), field);
+            }
+        }
+        for (final Method method : type.getMethods()) {
+            final String methodName = method.getName();
+            if (methodName.length() > 3 && methodName.startsWith("set") && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())) {
+                properties.put(Character.toLowerCase(methodName.charAt(3)) + methodName.substring(4), method);
+            }
+        }
+
+        final int length = properties.size();
+        final String[] names = new String[length];
+        final Class<?>[] types = new Class<?>[length];
+        final MethodHandle[] setters = new MethodHandle[length];
+        int i = 0;
+        for (final Map.Entry<String, Object> property : properties.entrySet()) {
+            final Object member = property.getValue();
+            names[i] = property.getKey();
+            if (member instanceof Method) {
+                final Method method = (Method) member;
+                types[i] = method.getParameterTypes()[0];
+                setters[i] = LOOKUP.unreflect(accessible(method)).asType(SETTER_TYPE);
+            } else {
+                final Field field = (Field) member;
+                types[i] = field.getType();
+                setters[i] = LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+            }
+            ++i;
+        }
+
+        final Constructor<?> constructor = accessible(type.getDeclaredConstructor());
+        final MethodHandle creator = LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        return new Target(type, names, types, creator, setters);
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private ResultBinding() {
+
+    }
+
+    // -----內部類別-----
+    /**
+     * 類別的綁定方式。
+     */
+    private static final class Target {
+
+        // -----物件常數-----
+        private final Class<?> type;
+        private final String[] names;
+        private final Class<?>[] types;
+        private final MethodHandle creator;
+        private final MethodHandle[] setters;
+        private final Map<String, Integer> indices;
+
+        // -----建構子-----
+        /**
+         * 建構子。
+         *
+         * @param type 傳入目標類別
+         * @param names 傳入屬性名稱
+         * @param types 傳入屬性型態
+         * @param creator 傳入建立物件的方法，record的建構子接受所有屬性，JavaBean的建構子沒有參數
+         * @param setters 傳入屬性的setter方法，若為record則為null
+         */
+        private Target(final Class<?> type, final String[] names, final Class<?>[] types, final MethodHandle creator, final MethodHandle[] setters) {
+            this.type = type;
+            this.names = names;
+            this.types = types;
+            this.creator = creator;
+            this.setters = setters;
+            this.indices = new HashMap<>();
+            for (int i = 0; i < names.length; ++i) {
+                indices.put(names[i], i);
+            }
+        }
+    }
+
+    /**
+     * 綁定計畫，記錄每個欄位對應到的屬性與該屬性的文字轉換方法。
+     *
+     * @param <T> 目標類別
+     */
+    static final class Plan<T> {
+
+        // -----物件常數-----
+        private final Target target;
+        private final int[] slots;
+        private final String[] names;
+        private final MethodHandle[] converters;
+
+        // -----建構子-----
+        /**
+         * 建構子。
+         *
+         * @param type 傳入目標類別
+         * @param target 傳入目標類別的綁定方式
+         * @param names 傳入每個欄位的名稱，若為null則依照屬性的順序綁定
+         */
+        private Plan(final Class<T> type, final Target target, final String[] names) {
+            this.target = target;
+            if (names == null) {
+                if (target.setters != null) {
+                    throw new IllegalArgumentException(String.format("The field names are required to bind to %s.", type.getName()));
+                }
+                this.names = target.names;
+                this.slots = new int[target.names.length];
+                for (int i = 0; i < slots.length; ++i) {
+                    slots[i] = i;
+                }
+            } else {
+                final ArrayList<String> unknown = new ArrayList<>();
+                this.names = names.clone();
+                this.slots = new int[names.length];
+                for (int i = 0; i < names.length; ++i) {
+                    final Integer slot = target.indices.get(names[i]);
+                    if (slot == null) {
+                        unknown.add(names[i]);
+                    } else {
+                        slots[i] = slot;
+                    }
+                }
+                if (!unknown.isEmpty()) {
+                    throw new IllegalArgumentException(String.format("%s has no properties named %s.", type.getName(), unknown));
+                }
+            }
+            //只解析有對應到欄位的屬性的轉換方法
+            this.converters = new MethodHandle[slots.length];
+            for (int i = 0; i < slots.length; ++i) {
+                final Class<?> propertyType = target.types[slots[i]];
+                try {
+                    converters[i] = CONVERTERS.get(propertyType);
+                } catch (final IllegalArgumentException ex) {
+                    throw new IllegalArgumentException(String.format("The property %s of %s cannot be bound because text cannot be converted to %s.", this.names[i], type.getName(), propertyType.getName()), ex);
+                }
+            }
+        }
+
+        // -----物件方法-----
+        /**
+         * 將輸入的文字綁定到新的物件上。
+         *
+         * @param values 傳入每個欄位輸入的文字，順序與建立計畫時的名稱相同
+         * @return 傳回新的物件，若values為null則傳回null
+         */
+        T bind(final String[] values) {
+            if (values == null) {
+                return null;
+            }
+            return bind(values.length, i -> values[i]);
+        }
+
+        /**
+         * 檢查輸入的文字是否都能轉換成屬性的型態。此方法只會呼叫文字轉換方法，不會建立目標物件，也不會呼叫建構子或setter方法，因此可以在背景執行緒上使用。
+         *
+         * @param values 傳入每個欄位輸入的文字，順序與建立計畫時的名稱相同
+         * @return 傳回錯誤訊息，若可以轉換則傳回null
+         */
+        String check(final String[] values) {
+            final int length = Math.min(values.length, slots.length);
+            try {
+                for (int i = 0; i < length; ++i) {
+                    convert(converters[i], target.types[slots[i]], values[i], names[i]);
+                }
+                return null;
+            } catch (final RuntimeException ex) {
+                return messageOf(ex);
+            }
+        }
+
+        /**
+         * 將輸入的文字綁定到新的物件上。
+         *
+         * @param count 傳入欄位的數量
+         * @param values 傳入取得每個欄位輸入的文字的方法，索引順序與建立計畫時的名稱相同
+         * @return 傳回新的物件
+         */
+        T bind(final int count, final IntFunction<String> values) {
+            final int length = Math.min(count, slots.length);
+            final Object result;
+            try {
+                if (target.setters == null) {
+                    final Object[] arguments = new Object[target.names.length];
+                    for (int i = 0; i < arguments.length; ++i) {
+                        arguments[i] = defaultValue(target.types[i]);
+                    }
+                    for (int i = 0; i < length; ++i) {
+                        final int slot = slots[i];
+                        arguments[slot] = convert(converters[i], target.types[slot], values.apply(i), names[i]);
+                    }
+                    result = (Object) target.creator.invokeExact(arguments);
+                } else {
+                    final Object bean = (Object) target.creator.invokeExact();
+                    for (int i = 0; i < length; ++i) {
+                        final int slot = slots[i];
+                        target.setters[slot].invokeExact(bean, convert(converters[i], target.types[slot], values.apply(i), names[i]));
+                    }
+                    result = bean;
+                }
+            } catch (final RuntimeException | Error ex) {
+                throw ex;
+            } catch (final Throwable ex) {
+                throw new IllegalArgumentException(String.format("Cannot bind to %s.", target.type.getName()), ex);
+            }
+            @SuppressWarnings("unchecked")
+            final T t = (T) result;
+            return t;
+        }
+    }
+}
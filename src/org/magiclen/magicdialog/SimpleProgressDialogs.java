@@ -17,11 +17,22 @@
  */
 package org.magiclen.magicdialog;
 
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import javafx.animation.PauseTransition;
 import javafx.scene.control.Labeled;
 import javafx.scene.layout.Pane;
 import javafx.scene.text.Font;
 import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
 import org.magiclen.magicdialog.dialogs.SimpleProgressDialog;
+import org.magiclen.magicdialog.progress.LogBuffer;
+import org.magiclen.magicdialog.progress.ProgressMeter;
+import org.magiclen.magicdialog.progress.ProgressSource;
 
 /**
  * 進度對話框設定類別，若要建立出對話框必須使用create方法。
@@ -36,6 +47,10 @@ public class SimpleProgressDialogs implements Cloneable {
     private static final Font DEFAULT_FONT = Font.getDefault();
     private static final double FONT_SIZE = DEFAULT_FONT.getSize();
     private static final String FONT_FAMILY = Font.getDefault().getFamily();
+    private static final long SHOW_DELAY = 300;
+    private static final long MINIMUM_SHOW_TIME = 500;
+    private static final long CANCEL_GRACE_PERIOD = 5000;
+    private static final int LOG_LINES = 6;
 
     // -----類別方法-----
     /**
@@ -48,11 +63,24 @@ public class SimpleProgressDialogs implements Cloneable {
     }
 
     // -----物件變數-----
-    private Window owner;
+    private WeakReference<Window> owner;
     private String message = "Loading...";
     private double fontSize = FONT_SIZE;
     private String fontFamily = FONT_FAMILY;
     private DialogAudio audio = DialogAudio.DEFAULT;
+    private Executor executor = DialogThreads.BACKGROUND;
+    private long showDelay = SHOW_DELAY;
+    private long minimumShowTime = MINIMUM_SHOW_TIME;
+    private ProgressSource progressSource = null;
+    private ProgressMeter.Unit progressUnit = ProgressMeter.Unit.ITEMS;
+    private int slowestTaskCount = 0;
+    private boolean cancellable = false;
+    private LogBuffer logBuffer = null;
+    private int logLines = LOG_LINES;
+    private boolean lightweight = false;
+    private long cancelGracePeriod = CANCEL_GRACE_PERIOD;
+    private String cancelText = null;
+    private String cancellingMessage = null;
 
     // -----建構子-----
     /**
@@ -85,11 +113,21 @@ public class SimpleProgressDialogs implements Cloneable {
      * @return 傳回對話框
      */
     public SimpleProgressDialog createDialog() {
+        final long startTime = System.nanoTime();
         final Font font = new Font(fontFamily, fontSize);
 
         final SimpleProgressDialog dialog = new SimpleProgressDialog();
-        dialog.initOwner(owner);
+        dialog.initOwner(getOwner());
         dialog.setMessage(message);
+        dialog.setProgressSource(progressSource, progressUnit);
+        dialog.setSlowestTaskCount(slowestTaskCount);
+        dialog.setCancelGracePeriod(cancelGracePeriod);
+        dialog.setCancelText(cancelText, cancellingMessage);
+        dialog.setLogBuffer(logBuffer, logLines);
+        dialog.setLightweight(lightweight);
+        if (cancellable) {
+            dialog.setOnCancel(dialog::close);
+        }
 
         dialog.centerToOwner();
 
@@ -97,10 +135,14 @@ public class SimpleProgressDialogs implements Cloneable {
         changeFontSize(font, dialog.getDialogPane());
 
         //加入音效
+        final DialogAudio actuallyAudio = getActuallyAudio();
         dialog.setOnShown(e -> {
-            playAudio();
+            DialogAudio.playAudio(actuallyAudio);
         });
 
+        //記錄監控資料
+        DialogMetrics.track(getClass(), dialog, cancellable ? 1 : 0, startTime);
+
         return dialog;
     }
 
@@ -122,13 +164,76 @@ public class SimpleProgressDialogs implements Cloneable {
     }
 
     /**
-     * 設定擁有對話框的Window。
+     * 在背景執行工作。工作執行超過顯示延遲時間後才會顯示對話框，而對話框顯示後至少會停留最短顯示時間，並在工作結束後自動關閉。若工作在顯示延遲時間內就結束，將不會建立對話框。取消傳回的CompletableFuture物件或是按下對話框的取消按鈕，都會中斷執行工作的執行緒。
+     *
+     * @param <T> 工作的回傳值型態
+     * @param task 傳入要執行的工作
+     * @return 傳回工作的執行結果
+     */
+    public <T> CompletableFuture<T> run(final Callable<T> task) {
+        final SimpleProgressDialogs settings = (SimpleProgressDialogs) clone();
+        final BackgroundTask<T> backgroundTask = new BackgroundTask<>(task);
+        final CompletableFuture<T> future = backgroundTask.getFuture();
+
+        try {
+            executor.execute(backgroundTask);
+        } catch (final RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+            return future;
+        }
+
+        DialogThreads.runOnFxThread(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            final PauseTransition delay = new PauseTransition(Duration.millis(settings.showDelay));
+            delay.setOnFinished(e -> {
+                if (future.isDone()) {
+                    return;
+                }
+                final SimpleProgressDialog dialog = settings.createDialog();
+                if (settings.cancellable) {
+                    dialog.setOnCancel(backgroundTask::cancel);
+                    dialog.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> {
+                        if (dialog.isCancelled()) {
+                            //工作沒有在寬限時間內結束，不再等待
+                            future.cancel(false);
+                        }
+                    });
+                }
+                final long shownTime = System.nanoTime();
+                dialog.show();
+                future.whenComplete((result, ex) -> DialogThreads.runOnFxThread(() -> {
+                    final long remainingTime = settings.minimumShowTime - (System.nanoTime() - shownTime) / 1000000;
+                    if (remainingTime > 0) {
+                        //避免對話框一閃而過
+                        final PauseTransition hold = new PauseTransition(Duration.millis(remainingTime));
+                        hold.setOnFinished(event -> {
+                            dialog.close();
+                        });
+                        hold.play();
+                    } else {
+                        dialog.close();
+                    }
+                }));
+            });
+            future.whenComplete((result, ex) -> DialogThreads.runOnFxThread(() -> {
+                delay.stop();
+            }));
+            delay.play();
+        });
+
+        return future;
+    }
+
+    /**
+     * 設定擁有對話框的Window。對話框設定只會弱參考這個Window，因此長期保存的對話框設定不會讓已關閉的Window無法被回收。
      *
      * @param owner 傳入擁有對話框的Window
      * @return 再把對話框設定傳回
      */
     public SimpleProgressDialogs owner(final Window owner) {
-        this.owner = owner;
+        this.owner = owner == null ? null : new WeakReference<>(owner);
         return this;
     }
 
@@ -180,6 +285,151 @@ public class SimpleProgressDialogs implements Cloneable {
         return this;
     }
 
+    /**
+     * 設定對話框的進度來源。若要讓多個子工作共用同一個對話框，可以傳入ProgressAggregator物件；若要在其他地方讀取對話框上顯示的處理速度與剩餘時間，可以傳入ProgressMeter物件。
+     *
+     * @param progressSource 傳入進度來源，若為null則顯示不確定的進度
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs progress(final ProgressSource progressSource) {
+        this.progressSource = progressSource;
+        return this;
+    }
+
+    /**
+     * 設定對話框的進度來源與工作量的單位。若要顯示檔案傳輸的進度，可以傳入搭配ProgressInputStream、ProgressReadableByteChannel或ProgressTransfers使用的ProgressCounter物件，並使用BYTES單位。
+     *
+     * @param progressSource 傳入進度來源，若為null則顯示不確定的進度
+     * @param unit 傳入工作量的單位
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs progress(final ProgressSource progressSource, final ProgressMeter.Unit unit) {
+        this.progressSource = progressSource;
+        if (unit == null) {
+            this.progressUnit = ProgressMeter.Unit.ITEMS;
+        } else {
+            this.progressUnit = unit;
+        }
+        return this;
+    }
+
+    /**
+     * 設定對話框要列出幾個最慢的子工作。只有在進度來源為ProgressAggregator時才會列出。
+     *
+     * @param slowestTaskCount 傳入要列出的子工作數量
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs slowestTasks(final int slowestTaskCount) {
+        this.slowestTaskCount = Math.max(0, slowestTaskCount);
+        return this;
+    }
+
+    /**
+     * 設定對話框要顯示日誌的緩衝區，顯示最新的6行日誌。
+     *
+     * @param logBuffer 傳入日誌緩衝區，若為null則不顯示日誌
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs log(final LogBuffer logBuffer) {
+        return log(logBuffer, LOG_LINES);
+    }
+
+    /**
+     * 設定對話框要顯示日誌的緩衝區與行數。
+     *
+     * @param logBuffer 傳入日誌緩衝區，若為null則不顯示日誌
+     * @param logLines 傳入要顯示的行數
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs log(final LogBuffer logBuffer, final int logLines) {
+        this.logBuffer = logBuffer;
+        this.logLines = Math.max(0, logLines);
+        return this;
+    }
+
+    /**
+     * 設定對話框是否使用低CPU用量的輕量模式。輕量模式會將陰影預先繪製並快取起來，以每秒10次的頻率更新畫面，並且在擁有者最小化時暫停所有動畫，適合在效能較差的電腦或是遠端桌面上使用。
+     *
+     * @param lightweight 傳入是否使用輕量模式
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs lightweight(final boolean lightweight) {
+        this.lightweight = lightweight;
+        return this;
+    }
+
+    /**
+     * 設定對話框是否可以取消。可以取消的對話框會出現取消按鈕；使用run方法時，取消將會中斷執行工作的執行緒，否則會直接關閉對話框，可再使用SimpleProgressDialog的cancelOn方法指定要取消的對象。
+     *
+     * @param cancellable 傳入對話框是否可以取消
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs cancellable(final boolean cancellable) {
+        this.cancellable = cancellable;
+        return this;
+    }
+
+    /**
+     * 設定取消按鈕的文字以及取消之後顯示的訊息。預設會使用JavaFX在目前語系的取消按鈕文字。
+     *
+     * @param cancelText 傳入取消按鈕的文字，若為null則使用預設的文字
+     * @param cancellingMessage 傳入取消之後顯示的訊息，若為null則使用取消按鈕的文字加上「...」
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs cancelText(final String cancelText, final String cancellingMessage) {
+        this.cancelText = cancelText;
+        this.cancellingMessage = cancellingMessage;
+        return this;
+    }
+
+    /**
+     * 設定取消之後等待工作結束的寬限時間，超過寬限時間對話框就會直接關閉。
+     *
+     * @param cancelGracePeriod 傳入寬限時間(毫秒)
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs cancelGracePeriod(final long cancelGracePeriod) {
+        this.cancelGracePeriod = Math.max(0, cancelGracePeriod);
+        return this;
+    }
+
+    /**
+     * 設定使用run方法時，執行工作的執行器。
+     *
+     * @param executor 傳入執行器，若為null則使用預設的背景執行器
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs executor(final Executor executor) {
+        if (executor == null) {
+            this.executor = DialogThreads.BACKGROUND;
+        } else {
+            this.executor = executor;
+        }
+        return this;
+    }
+
+    /**
+     * 設定使用run方法時，工作要執行多久才顯示對話框。
+     *
+     * @param showDelay 傳入顯示延遲時間(毫秒)
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs showDelay(final long showDelay) {
+        this.showDelay = Math.max(0, showDelay);
+        return this;
+    }
+
+    /**
+     * 設定使用run方法時，對話框顯示後至少要停留多久。
+     *
+     * @param minimumShowTime 傳入最短顯示時間(毫秒)
+     * @return 再把對話框設定傳回
+     */
+    public SimpleProgressDialogs minimumShowTime(final long minimumShowTime) {
+        this.minimumShowTime = Math.max(0, minimumShowTime);
+        return this;
+    }
+
     /**
      * 複製對話框設定。
      *
@@ -188,14 +438,25 @@ public class SimpleProgressDialogs implements Cloneable {
     @Override
     public Object clone() {
         final SimpleProgressDialogs dialogs = SimpleProgressDialogs.create();
-        dialogs.audio(audio).fontSize(fontSize).fontFamily(fontFamily).owner(owner).message(message);
+        dialogs.audio(audio).fontSize(fontSize).fontFamily(fontFamily).owner(getOwner()).message(message).executor(executor).showDelay(showDelay).minimumShowTime(minimumShowTime).progress(progressSource, progressUnit).slowestTasks(slowestTaskCount).cancellable(cancellable).cancelGracePeriod(cancelGracePeriod).cancelText(cancelText, cancellingMessage).log(logBuffer, logLines).lightweight(lightweight);
         return dialogs;
     }
 
     /**
-     * 播放音效。
+     * 取得擁有對話框的Window。
+     *
+     * @return 傳回擁有對話框的Window，若沒有設定或是已被回收，回傳null
+     */
+    private Window getOwner() {
+        return owner == null ? null : owner.get();
+    }
+
+    /**
+     * 取得實際要播放的音效。
+     *
+     * @return 傳回實際要播放的音效
      */
-    private void playAudio() {
-        DialogAudio.playAudio(audio);
+    private DialogAudio getActuallyAudio() {
+        return audio;
     }
 }
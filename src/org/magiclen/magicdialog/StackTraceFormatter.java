@@ -0,0 +1,204 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * 例外堆疊的格式化工具。格式與Throwable.printStackTrace相同，但是會將遞迴造成的重複堆疊以及連續的框架堆疊摺疊成一行，讓很深的堆疊也能快速閱讀。此類別的方法應在背景執行緒上執行。
+ *
+ * @author Magic Len
+ */
+final class StackTraceFormatter {
+
+    // -----類別常數-----
+    private static final String INDENT = "    ";
+    private static final String[] FRAMEWORK_PREFIXES = {"java.", "javax.", "jdk.", "sun.", "com.sun.", "javafx."};
+    /**
+     * 重複堆疊的最長週期。
+     */
+    private static final int MAX_PERIOD = 16;
+    /**
+     * 重複堆疊至少要重複的次數才會被摺疊。
+     */
+    private static final int MIN_REPEATS = 3;
+    /**
+     * 連續的框架堆疊至少要有的數量才會被摺疊。
+     */
+    private static final int MIN_FRAMEWORK_FRAMES = 3;
+
+    // -----類別方法-----
+    /**
+     * 格式化例外，包含例外的原因以及被抑制的例外。
+     *
+     * @param throwable 傳入例外
+     * @return 傳回格式化後的文字
+     */
+    static StringBuilder format(final Throwable throwable) {
+        final StringBuilder sb = new StringBuilder();
+        final Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        append(sb, throwable, new StackTraceElement[0], "", "", seen);
+        return sb;
+    }
+
+    /**
+     * 加入一個例外的堆疊。
+     *
+     * @param sb 傳入要加入的StringBuilder
+     * @param throwable 傳入例外
+     * @param enclosingTrace 傳入外層例外的堆疊
+     * @param caption 傳入例外前的標題
+     * @param indent 傳入縮排
+     * @param seen 傳入已經加入過的例外
+     */
+    private static void append(final StringBuilder sb, final Throwable throwable, final StackTraceElement[] enclosingTrace, final String caption, final String indent, final Set<Throwable> seen) {
+        if (!seen.add(throwable)) {
+            sb.append(indent).append(caption).append("[CIRCULAR REFERENCE: ").append(throwable).append("]\n");
+            return;
+        }
+        final StackTraceElement[] trace = throwable.getStackTrace();
+
+        //與外層例外相同的堆疊不重複列出
+        int common = 0;
+        for (int i = trace.length - 1, j = enclosingTrace.length - 1; i >= 0 && j >= 0 && trace[i].equals(enclosingTrace[j]); --i, --j) {
+            ++common;
+        }
+        final int unique = trace.length - common;
+
+        sb.append(indent).append(caption).append(throwable).append('\n');
+        int i = 0;
+        while (i < unique) {
+            final long cycle = findCycle(trace, i, unique);
+            if (cycle != 0) {
+                final int period = (int) (cycle >>> 32);
+                final int repeats = (int) cycle;
+                for (int k = i; k < i + period; ++k) {
+                    appendFrame(sb, indent, trace[k]);
+                }
+                sb.append(indent).append(INDENT).append("... the ").append(period == 1 ? "frame" : period + " frames").append(" above repeated ").append(repeats - 1).append(" more times\n");
+                i += period * repeats;
+                continue;
+            }
+            //第一個堆疊是丟出例外的位置，一律保留
+            if (i > 0 && isFramework(trace[i])) {
+                int j = i + 1;
+                while (j < unique && isFramework(trace[j]) && findCycle(trace, j, unique) == 0) {
+                    ++j;
+                }
+                if (j - i >= MIN_FRAMEWORK_FRAMES) {
+                    sb.append(indent).append(INDENT).append("... ").append(j - i).append(" framework frames\n");
+                    i = j;
+                    continue;
+                }
+            }
+            appendFrame(sb, indent, trace[i]);
+            ++i;
+        }
+        if (common != 0) {
+            sb.append(indent).append(INDENT).append("... ").append(common).append(" more\n");
+        }
+
+        for (final Throwable suppressed : throwable.getSuppressed()) {
+            append(sb, suppressed, trace, "Suppressed: ", indent + INDENT, seen);
+        }
+        final Throwable cause = throwable.getCause();
+        if (cause != null) {
+            append(sb, cause, trace, "Caused by: ", indent, seen);
+        }
+    }
+
+    /**
+     * 加入一個堆疊。
+     *
+     * @param sb 傳入要加入的StringBuilder
+     * @param indent 傳入縮排
+     * @param frame 傳入堆疊
+     */
+    private static void appendFrame(final StringBuilder sb, final String indent, final StackTraceElement frame) {
+        sb.append(indent).append(INDENT).append("at ").append(frame).append('\n');
+    }
+
+    /**
+     * 尋找從指定位置開始重複的堆疊。若有多種週期，選擇能摺疊最多堆疊的最短週期。
+     *
+     * @param trace 傳入堆疊
+     * @param from 傳入開始的位置
+     * @param to 傳入結束的位置
+     * @return 傳回週期與重複次數，週期在高32位元，重複次數在低32位元，若沒有重複則傳回0
+     */
+    private static long findCycle(final StackTraceElement[] trace, final int from, final int to) {
+        int bestPeriod = 0;
+        int bestRepeats = 0;
+        final int maxPeriod = Math.min(MAX_PERIOD, (to - from) / MIN_REPEATS);
+        for (int period = 1; period <= maxPeriod; ++period) {
+            int repeats = 1;
+            while (from + (repeats + 1) * period <= to && rangeEquals(trace, from, from + repeats * period, period)) {
+                ++repeats;
+            }
+            if (repeats >= MIN_REPEATS && period * repeats > bestPeriod * bestRepeats) {
+                bestPeriod = period;
+                bestRepeats = repeats;
+            }
+        }
+        return bestPeriod == 0 ? 0 : ((long) bestPeriod << 32) | bestRepeats;
+    }
+
+    /**
+     * 判斷兩段堆疊是否相同。
+     *
+     * @param trace 傳入堆疊
+     * @param a 傳入第一段的開始位置
+     * @param b 傳入第二段的開始位置
+     * @param length 傳入長度
+     * @return 傳回兩段堆疊是否相同
+     */
+    private static boolean rangeEquals(final StackTraceElement[] trace, final int a, final int b, final int length) {
+        for (int i = 0; i < length; ++i) {
+            if (!trace[a + i].equals(trace[b + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判斷堆疊是否屬於Java或JavaFX的框架。
+     *
+     * @param frame 傳入堆疊
+     * @return 傳回堆疊是否屬於框架
+     */
+    private static boolean isFramework(final StackTraceElement frame) {
+        final String className = frame.getClassName();
+        for (final String prefix : FRAMEWORK_PREFIXES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private StackTraceFormatter() {
+
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自動完成建議的快取。每個建議來源與建議數量上限的組合各有一個快取，快取以前綴字串為鍵，超過容量時會先移除最久沒有使用的結果，結果放入超過一定時間後也會失效。若較短的前綴字串已經取得所有的建議，較長的前綴字串會直接從中篩選，不需要再向建議來源查詢。此類別只在JavaFX的應用程式執行緒上使用。
+ *
+ * @author Magic Len
+ */
+final class SuggestionCache {
+
+    // -----類別常數-----
+    private static final int CAPACITY = 256;
+    /**
+     * 結果的有效時間。
+     */
+    private static final long TTL = TimeUnit.MINUTES.toNanos(5);
+
+    // -----物件常數-----
+    private final int limit;
+    private final LinkedHashMap<String, Result> results = new LinkedHashMap<String, Result>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Result> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    // -----物件變數-----
+    private long version;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param limit 傳入查詢時的建議數量上限
+     */
+    SuggestionCache(final int limit) {
+        this.limit = limit;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得前綴字串的建議。
+     *
+     * @param prefix 傳入前綴字串
+     * @return 傳回建議，若快取中沒有可以使用的結果，傳回null
+     */
+    List<String> get(final String prefix) {
+        final long now = System.nanoTime();
+        final Result result = getValid(prefix, now);
+        if (result != null) {
+            return result.items;
+        }
+        //從最長的已完整前綴字串開始尋找，篩選的項目最少
+        for (int length = prefix.length() - 1; length > 0; --length) {
+            final Result shorter = getValid(prefix.substring(0, length), now);
+            if (shorter != null && shorter.complete) {
+                final ArrayList<String> refined = new ArrayList<>();
+                for (final String item : shorter.items) {
+                    if (item.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                        refined.add(item);
+                    }
+                }
+                final List<String> items = Collections.unmodifiableList(refined);
+                //篩選出來的結果與原本的結果同時失效
+                results.put(prefix, new Result(items, true, shorter.time));
+                return items;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 取得還沒有失效的結果，失效的結果會被移除。
+     *
+     * @param prefix 傳入前綴字串
+     * @param now 傳入目前的時間
+     * @return 傳回結果，若沒有結果或是結果已失效，傳回null
+     */
+    private Result getValid(final String prefix, final long now) {
+        final Result result = results.get(prefix);
+        if (result != null && now - result.time > TTL) {
+            results.remove(prefix);
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * 取得快取的版本，快取被清除時版本會改變。
+     *
+     * @return 傳回快取的版本
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * 將建議來源傳回的建議放入快取。超過建議數量上限的建議會被捨棄。
+     *
+     * @param prefix 傳入前綴字串
+     * @param items 傳入建議
+     * @param version 傳入開始查詢時的快取版本，若查詢期間快取被清除，則建議不會放入快取
+     * @return 傳回建議
+     */
+    List<String> put(final String prefix, final List<String> items, final long version) {
+        final List<String> copied;
+        if (items == null) {
+            copied = Collections.<String>emptyList();
+        } else {
+            copied = Collections.unmodifiableList(new ArrayList<>(items.size() > limit ? items.subList(0, limit) : items));
+        }
+        if (version == this.version) {
+            results.put(prefix, new Result(copied, items == null || items.size() < limit, System.nanoTime()));
+        }
+        return copied;
+    }
+
+    /**
+     * 清除所有的結果。
+     */
+    void clear() {
+        results.clear();
+        ++version;
+    }
+
+    // -----內部類別-----
+    /**
+     * 快取的結果。
+     */
+    private static final class Result {
+
+        private final List<String> items;
+        private final boolean complete;
+        private final long time;
+
+        Result(final List<String> items, final boolean complete, final long time) {
+            this.items = items;
+            this.complete = complete;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.List;
+
+/**
+ * 輸入對話框的自動完成建議來源。取得建議的工作會在背景執行緒上執行，結果會依照輸入的前綴字串快取起來。
+ *
+ * @author Magic Len
+ */
+@FunctionalInterface
+public interface SuggestionProvider {
+
+    /**
+     * 取得以指定前綴字串開頭的建議。此方法會在背景執行緒上被呼叫，使用者繼續輸入而使得這次的建議過時時，會中斷執行此方法的執行緒。
+     * <p>
+     * 傳回的每個建議都必須以前綴字串開頭(不區分大小寫)。若傳回的建議數量少於上限，表示這就是所有的建議，之後輸入更長的前綴字串時，會直接從這些建議中篩選出來，不會再次呼叫此方法。
+     *
+     * @param prefix 傳入使用者輸入的前綴字串
+     * @param limit 傳入建議數量的上限
+     * @return 傳回建議
+     * @throws Exception 取得建議失敗時拋出例外，將不會顯示建議
+     */
+    List<String> suggest(String prefix, int limit) throws Exception;
+
+    /**
+     * 清除這個建議來源快取起來的所有建議，在建議來源的資料改變後呼叫。快取的建議在放入5分鐘後也會自動失效。此方法可以在任何執行緒上呼叫。
+     */
+    default void invalidateSuggestions() {
+        Autocomplete.invalidate(this);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 所有對話框共用的雜湊時間輪。排程與取消都只需要常數時間，且不論有多少個等待中的計時，都只使用一個執行緒。計時到期時，工作會在時間輪的執行緒上執行，因此不應執行耗時的工作。
+ *
+ * @author Magic Len
+ */
+final class TimerWheel {
+
+    // -----內部類別-----
+    /**
+     * 已排程的計時。
+     */
+    static final class Timeout {
+
+        // -----物件常數-----
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        // -----物件變數-----
+        private long rounds;
+        private Timeout next;
+
+        // -----建構子-----
+        private Timeout(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        // -----物件方法-----
+        /**
+         * 取消計時。已取消的計時會在時間輪轉到它所在的格子時才被移除。
+         */
+        void cancel() {
+            cancelled.set(true);
+        }
+
+        /**
+         * 判斷計時是否已被取消。
+         *
+         * @return 傳回計時是否已被取消
+         */
+        boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
+    /**
+     * 在第一次使用時才建立時間輪。
+     */
+    private static final class Holder {
+
+        private static final TimerWheel INSTANCE = new TimerWheel();
+    }
+
+    // -----類別常數-----
+    private static final long TICK_DURATION = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    // -----類別方法-----
+    /**
+     * 取得共用的時間輪。
+     *
+     * @return 傳回時間輪
+     */
+    static TimerWheel getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // -----物件常數-----
+    private final Timeout[] buckets = new Timeout[WHEEL_SIZE];
+    private final ConcurrentLinkedQueue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final long startTime;
+
+    // -----物件變數-----
+    private long tick;
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被外部實體化。
+     */
+    private TimerWheel() {
+        startTime = System.nanoTime();
+        final Thread worker = new Thread(this::work, "MagicDialog-TimerWheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // -----物件方法-----
+    /**
+     * 排程一個計時。
+     *
+     * @param task 傳入計時到期時要執行的工作
+     * @param delay 傳入延遲時間(毫秒)
+     * @return 傳回計時，可用來取消
+     */
+    Timeout schedule(final Runnable task, final long delay) {
+        final long deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay));
+        final Timeout timeout = new Timeout(task, (deadline + TICK_DURATION - 1) / TICK_DURATION);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 時間輪執行緒的主要迴圈。
+     */
+    private void work() {
+        while (true) {
+            final long deadline = (tick + 1) * TICK_DURATION;
+            final long sleepTime = deadline - (System.nanoTime() - startTime);
+            if (sleepTime > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepTime);
+                } catch (final InterruptedException ex) {
+                    return;
+                }
+                continue;
+            }
+            ++tick;
+            transferPendingTimeouts();
+            expireTimeouts(buckets, (int) (tick & MASK));
+        }
+    }
+
+    /**
+     * 將新排程的計時放入對應的格子中。
+     */
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            final long deadline = Math.max(timeout.deadline, tick);
+            timeout.rounds = (deadline - tick) / WHEEL_SIZE;
+            final int index = (int) (deadline & MASK);
+            timeout.next = buckets[index];
+            buckets[index] = timeout;
+        }
+    }
+
+    /**
+     * 執行格子中已到期的計時，並移除已取消的計時。
+     *
+     * @param buckets 傳入時間輪的格子
+     * @param index 傳入目前的格子索引
+     */
+    private static void expireTimeouts(final Timeout[] buckets, final int index) {
+        Timeout previous = null;
+        Timeout timeout = buckets[index];
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+            final boolean remove;
+            if (timeout.isCancelled()) {
+                remove = true;
+            } else if (timeout.rounds <= 0) {
+                remove = true;
+                if (timeout.cancelled.compareAndSet(false, true)) {
+                    try {
+                        timeout.task.run();
+                    } catch (final RuntimeException ex) {
+                        //單一計時的錯誤不能讓時間輪停止，交給執行緒的例外處理器回報
+                        final Thread thread = Thread.currentThread();
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+                    }
+                }
+            } else {
+                --timeout.rounds;
+                remove = false;
+            }
+            if (remove) {
+                if (previous == null) {
+                    buckets[index] = next;
+                } else {
+                    previous.next = next;
+                }
+                timeout.next = null;
+            } else {
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+}
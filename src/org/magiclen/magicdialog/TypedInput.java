@@ -0,0 +1,305 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog;
+
+import java.time.LocalDate;
+import java.util.function.UnaryOperator;
+import javafx.scene.control.TextFormatter;
+
+/**
+ * 有型態的輸入方塊使用的輸入過濾器與解析方法。過濾器只檢查每次編輯所加入的文字與位置，只有在加入小數點時才會尋找原本的文字中是否已有小數點。解析方法每次都會檢查整個文字，但整數最多只有11個字元、日期固定為10個字元，十進位數值只需要檢查開頭的兩個字元，因此成本不會隨著輸入變長而增加，且都不會建立物件。
+ *
+ * @author Magic Len
+ */
+final class TypedInput {
+
+    // -----類別常數-----
+    /**
+     * 解析失敗時傳回的值。
+     */
+    static final long INVALID = Long.MIN_VALUE;
+    private static final int INT_DIGITS = 10;
+    private static final int DATE_LENGTH = 10;
+
+    // -----類別方法-----
+    /**
+     * 建立整數的輸入過濾器。
+     *
+     * @param negative 傳入是否可以輸入負數
+     * @return 傳回輸入過濾器
+     */
+    static UnaryOperator<TextFormatter.Change> integerFilter(final boolean negative) {
+        return change -> {
+            if (!checkSign(change, negative)) {
+                return null;
+            }
+            final String added = change.getText();
+            final int start = change.getRangeStart();
+            for (int i = 0; i < added.length(); ++i) {
+                final char c = added.charAt(i);
+                if (!(c >= '0' && c <= '9') && !(c == '-' && start + i == 0)) {
+                    return null;
+                }
+            }
+            final int newLength = change.getControlText().length() - (change.getRangeEnd() - start) + added.length();
+            final boolean signed = (start == 0 && added.startsWith("-")) || (start > 0 && change.getControlText().startsWith("-"));
+            if (newLength - (signed ? 1 : 0) > INT_DIGITS) {
+                return null;
+            }
+            return change;
+        };
+    }
+
+    /**
+     * 建立十進位數值的輸入過濾器。
+     *
+     * @param negative 傳入是否可以輸入負數
+     * @return 傳回輸入過濾器
+     */
+    static UnaryOperator<TextFormatter.Change> decimalFilter(final boolean negative) {
+        return change -> {
+            if (!checkSign(change, negative)) {
+                return null;
+            }
+            final String added = change.getText();
+            final int start = change.getRangeStart();
+            boolean dot = false;
+            for (int i = 0; i < added.length(); ++i) {
+                final char c = added.charAt(i);
+                if (c == '.') {
+                    if (dot) {
+                        return null;
+                    }
+                    dot = true;
+                } else if (!(c >= '0' && c <= '9') && !(c == '-' && start + i == 0)) {
+                    return null;
+                }
+            }
+            if (dot) {
+                //小數點只能有一個，檢查沒有被取代的文字中是否已經有小數點
+                final String text = change.getControlText();
+                final int end = change.getRangeEnd();
+                for (int i = 0; i < text.length(); ++i) {
+                    if (text.charAt(i) == '.' && (i < start || i >= end)) {
+                        return null;
+                    }
+                }
+            }
+            return change;
+        };
+    }
+
+    /**
+     * 檢查編輯後負號的位置。負號只能在第一個字元，且不能在負號之前插入文字。
+     *
+     * @param change 傳入編輯
+     * @param negative 傳入是否可以輸入負數
+     * @return 傳回編輯後負號的位置是否正確
+     */
+    private static boolean checkSign(final TextFormatter.Change change, final boolean negative) {
+        final String added = change.getText();
+        if (!negative && added.indexOf('-') >= 0) {
+            return false;
+        }
+        if (change.getRangeStart() == 0 && change.getRangeEnd() == 0 && !added.isEmpty() && change.getControlText().startsWith("-")) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 建立ISO格式(yyyy-MM-dd)日期的輸入過濾器。只能在文字的結尾輸入或刪除，或是以相同長度的文字取代，每個字元都必須符合所在位置的格式。在年或月的後面輸入數字時，會自動加入「-」。
+     *
+     * @return 傳回輸入過濾器
+     */
+    static UnaryOperator<TextFormatter.Change> dateFilter() {
+        return change -> {
+            final String text = change.getControlText();
+            final int start = change.getRangeStart();
+            final int end = change.getRangeEnd();
+            String added = change.getText();
+            if (end < text.length() && added.length() != end - start) {
+                return null;
+            }
+            if (added.length() == 1 && end == text.length() && (start == 4 || start == 7) && added.charAt(0) >= '0' && added.charAt(0) <= '9') {
+                added = "-" + added;
+                change.setText(added);
+                change.selectRange(start + 2, start + 2);
+            }
+            if (start + added.length() + (text.length() - end) > DATE_LENGTH) {
+                return null;
+            }
+            for (int i = 0; i < added.length(); ++i) {
+                final int position = start + i;
+                final char c = added.charAt(i);
+                if (position == 4 || position == 7) {
+                    if (c != '-') {
+                        return null;
+                    }
+                } else if (c < '0' || c > '9') {
+                    return null;
+                }
+            }
+            return change;
+        };
+    }
+
+    /**
+     * 解析整數。
+     *
+     * @param text 傳入文字，只能包含數字以及開頭的負號
+     * @return 傳回整數，若文字中沒有數字，傳回INVALID
+     */
+    static long parseLong(final CharSequence text) {
+        final int length = text.length();
+        final boolean signed = length > 0 && text.charAt(0) == '-';
+        if (length == (signed ? 1 : 0) || length > INT_DIGITS + 1) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = signed ? 1 : 0; i < length; ++i) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return signed ? -value : value;
+    }
+
+    /**
+     * 檢查文字是否為完整的十進位數值。
+     *
+     * @param text 傳入文字，只能包含數字、一個小數點以及開頭的負號
+     * @return 傳回文字中是否有數字
+     */
+    static boolean isCompleteDecimal(final CharSequence text) {
+        final int length = text.length();
+        //過濾器已經確保字元的格式，只剩下沒有數字的情形
+        switch (length) {
+            case 0:
+                return false;
+            case 1:
+                return text.charAt(0) != '-' && text.charAt(0) != '.';
+            case 2:
+                return !(text.charAt(0) == '-' && text.charAt(1) == '.');
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 將ISO格式的日期文字轉換成自西元1970年1月1日起的天數。
+     *
+     * @param text 傳入文字
+     * @return 傳回天數，若文字不是完整且正確的日期，傳回INVALID
+     */
+    static long parseEpochDay(final CharSequence text) {
+        if (text.length() != DATE_LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return INVALID;
+        }
+        final int year = digits(text, 0, 4);
+        final int month = digits(text, 5, 7);
+        final int day = digits(text, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        //與LocalDate.toEpochDay相同的計算方式，避免建立物件
+        long total = 365L * year;
+        total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            --total;
+            if (!isLeapYear(year)) {
+                --total;
+            }
+        }
+        return total - 719528L;
+    }
+
+    /**
+     * 將ISO格式的日期文字轉換成日期。
+     *
+     * @param text 傳入文字
+     * @return 傳回日期，若文字不是完整且正確的日期，傳回null
+     */
+    static LocalDate parseDate(final CharSequence text) {
+        final long epochDay = parseEpochDay(text);
+        return epochDay == INVALID ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * 解析數字。
+     *
+     * @param text 傳入文字
+     * @param from 傳入開始的索引
+     * @param to 傳入結束的索引
+     * @return 傳回數字，若有不是數字的字元，傳回-1
+     */
+    private static int digits(final CharSequence text, final int from, final int to) {
+        int value = 0;
+        for (int i = from; i < to; ++i) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 判斷是否為閏年。
+     *
+     * @param year 傳入年份
+     * @return 傳回是否為閏年
+     */
+    private static boolean isLeapYear(final int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * 取得月份的天數。
+     *
+     * @param year 傳入年份
+     * @param month 傳入月份
+     * @return 傳回月份的天數
+     */
+    private static int lengthOfMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private TypedInput() {
+
+    }
+}
@@ -17,21 +17,52 @@
  */
 package org.magiclen.magicdialog.dialogs;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.animation.AnimationTimer;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.ProgressIndicator;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
+import javafx.scene.shape.Arc;
+import javafx.scene.shape.ArcType;
 import javafx.stage.Modality;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
+import org.magiclen.magicdialog.jfr.DialogEvents;
+import org.magiclen.magicdialog.progress.LogBuffer;
+import org.magiclen.magicdialog.progress.ProgressAggregator;
+import org.magiclen.magicdialog.progress.ProgressMeter;
+import org.magiclen.magicdialog.progress.ProgressSource;
 
 /**
  * 簡易的進度對話框。
@@ -47,6 +78,26 @@ public class SimpleProgressDialog extends Stage {
     private static final double DOUBLE_GAP = GAP * 2;
     private static final int SHADOW_SIZE = 50;
     private static final double PADDING = DOUBLE_GAP + SHADOW_SIZE;
+    private static final double ROW_WIDTH = WIDTH - PADDING * 2 - DOUBLE_GAP;
+    private static final long CANCEL_GRACE_PERIOD = 5000;
+    private static final int LOG_CELL_SIZE = 20;
+    private static final String PANE_STYLE = String.format("-fx-background-color: white; -fx-effect: dropshadow(gaussian, gray, %d, 0, 0, 0); -fx-background-insets: %d;", SHADOW_SIZE, SHADOW_SIZE);
+    private static final int LIGHTWEIGHT_FRAME_RATE = 10;
+    private static final double SPINNER_RADIUS = 14;
+    private static final Color SPINNER_COLOR = Color.web("#0096c9");
+
+    // -----內部類別-----
+    /**
+     * 輕量模式共用的計時器，在第一次使用時才建立。
+     */
+    private static final class Scheduler {
+
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "MagicDialog-Pulse");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     // -----物件常數-----
     private final Insets insets, insetsPadding;
@@ -55,6 +106,35 @@ public class SimpleProgressDialog extends Stage {
     private final FlowPane fpMain;
     private final ProgressIndicator piLoading;
     private final Label lMessage;
+    private final Label lStatistics;
+    private final VBox vbTasks;
+    private final AnimationTimer pulse;
+    private final Runnable throttledPulse;
+    private final AtomicBoolean throttledPulsePending = new AtomicBoolean();
+    private final StackPane spIndicator;
+    private final Arc aSpinner;
+    private final Region rShadow;
+    private final ChangeListener<Boolean> ownerIconifiedListener;
+    private final Button bCancel;
+    private final HBox hbCancel;
+    private final ListView<String> lvLog;
+    private final PauseTransition cancelGraceTimer;
+    private final long[] publishedLogSequence = new long[1];
+
+    // -----物件變數-----
+    private ProgressMeter progressMeter;
+    private Label[] taskLabels = new Label[0];
+    private Runnable onCancel;
+    private long cancelGracePeriod = CANCEL_GRACE_PERIOD;
+    private String cancellingMessage = ButtonType.CANCEL.getText().concat("...");
+    private volatile boolean cancelled;
+    private LogBuffer logBuffer;
+    private long logSequence = -1;
+    private long reportedWorkDone;
+    private long reportedLogSequence;
+    private String[] logLines = new String[0];
+    private boolean lightweight;
+    private ScheduledFuture<?> throttledPulseFuture;
 
     // -----建構子-----
     public SimpleProgressDialog() {
@@ -64,17 +144,61 @@ public class SimpleProgressDialog extends Stage {
         piLoading = new ProgressIndicator();
         piLoading.setMaxSize(Integer.MAX_VALUE, Integer.MAX_VALUE);
 
+        aSpinner = new Arc(0, 0, SPINNER_RADIUS, SPINNER_RADIUS, 90, 270);
+        aSpinner.setType(ArcType.OPEN);
+        aSpinner.setFill(null);
+        aSpinner.setStroke(SPINNER_COLOR);
+        aSpinner.setStrokeWidth(SPINNER_RADIUS / 4);
+
+        spIndicator = new StackPane(piLoading);
+
         lMessage = new Label();
         lMessage.setAlignment(Pos.CENTER_LEFT);
         lMessage.setMaxSize(Integer.MAX_VALUE, Integer.MAX_VALUE);
 
-        FlowPane.setMargin(piLoading, insets);
+        FlowPane.setMargin(spIndicator, insets);
         FlowPane.setMargin(lMessage, insets);
+
+        lStatistics = new Label();
+        lStatistics.setPrefWidth(ROW_WIDTH);
+        FlowPane.setMargin(lStatistics, insets);
+
+        vbTasks = new VBox();
+        vbTasks.setPrefWidth(ROW_WIDTH);
+        FlowPane.setMargin(vbTasks, insets);
+
+        lvLog = new ListView<>();
+        lvLog.setFocusTraversable(false);
+        lvLog.setFixedCellSize(LOG_CELL_SIZE);
+        lvLog.setPrefWidth(ROW_WIDTH);
+        lvLog.setStyle("-fx-font-family: monospace;");
+        FlowPane.setMargin(lvLog, insets);
+
+        bCancel = new Button(ButtonType.CANCEL.getText());
+        bCancel.setOnAction(e -> {
+            cancel();
+        });
+        hbCancel = new HBox(bCancel);
+        hbCancel.setAlignment(Pos.CENTER_RIGHT);
+        hbCancel.setPrefWidth(ROW_WIDTH);
+        FlowPane.setMargin(hbCancel, insets);
+
+        cancelGraceTimer = new PauseTransition();
+        cancelGraceTimer.setOnFinished(e -> {
+            //工作沒有在寬限時間內結束，直接關閉對話框
+            close();
+        });
+
         fpMain = new FlowPane();
-        fpMain.getChildren().addAll(piLoading, lMessage);
+        fpMain.getChildren().addAll(spIndicator, lMessage);
         fpMain.setAlignment(Pos.CENTER);
         fpMain.setPadding(insetsPadding);
-        fpMain.setStyle(String.format("-fx-background-color: white; -fx-effect: dropshadow(gaussian, gray, %d, 0, 0, 0); -fx-background-insets: %d;", SHADOW_SIZE, SHADOW_SIZE));
+        fpMain.setStyle(PANE_STYLE);
+
+        //輕量模式下，陰影畫在另一個不會變動的節點上，只需繪製一次便可重複使用
+        rShadow = new Region();
+        rShadow.setStyle(PANE_STYLE);
+        rShadow.setCache(true);
 
         stackPane = new StackPane(fpMain);
         stackPane.setStyle(String.format("-fx-background-color: rgba(255, 255, 255, 0.5); -fx-background-insets: %d;", SHADOW_SIZE));
@@ -86,6 +210,59 @@ public class SimpleProgressDialog extends Stage {
         initStyle(StageStyle.TRANSPARENT);
         initModality(Modality.WINDOW_MODAL);
 
+        //每個畫面更新一次進度
+        pulse = new AnimationTimer() {
+            @Override
+            public void handle(final long now) {
+                refresh();
+            }
+        };
+
+        //輕量模式不使用JavaFX的動畫，由背景計時器以固定頻率更新畫面，讓JavaFX在兩次更新之間完全閒置
+        throttledPulse = () -> {
+            if (throttledPulsePending.compareAndSet(false, true)) {
+                Platform.runLater(() -> {
+                    throttledPulsePending.set(false);
+                    if (throttledPulseFuture != null) {
+                        refresh();
+                        aSpinner.setRotate((aSpinner.getRotate() + 360.0 / LIGHTWEIGHT_FRAME_RATE) % 360);
+                    }
+                });
+            }
+        };
+
+        //擁有者最小化時暫停動畫
+        ownerIconifiedListener = (observable, oldValue, newValue) -> {
+            updatePulse();
+            updateIndicator();
+        };
+
+        addEventHandler(WindowEvent.WINDOW_SHOWING, e -> {
+            final Window owner = getOwner();
+            if (owner instanceof Stage) {
+                ((Stage) owner).iconifiedProperty().addListener(ownerIconifiedListener);
+            }
+            refresh();
+            fitToContent();
+        });
+        addEventHandler(WindowEvent.WINDOW_SHOWN, e -> {
+            updatePulse();
+        });
+        addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> {
+            final Window owner = getOwner();
+            if (owner instanceof Stage) {
+                ((Stage) owner).iconifiedProperty().removeListener(ownerIconifiedListener);
+            }
+            updatePulse();
+            cancelGraceTimer.stop();
+        });
+        scene.addEventHandler(KeyEvent.KEY_PRESSED, e -> {
+            if (e.getCode() == KeyCode.ESCAPE && onCancel != null) {
+                cancel();
+                e.consume();
+            }
+        });
+
         centerToOwner();
     }
 
@@ -99,6 +276,404 @@ public class SimpleProgressDialog extends Stage {
         lMessage.setText(message);
     }
 
+    /**
+     * 設定是否使用低CPU用量的輕量模式。輕量模式會將陰影預先繪製並快取起來，以每秒10次的頻率更新畫面與不確定進度的動畫，並且在擁有者最小化時暫停所有動畫，適合在效能較差的電腦或是遠端桌面上使用。
+     *
+     * @param lightweight 傳入是否使用輕量模式
+     */
+    public void setLightweight(final boolean lightweight) {
+        if (this.lightweight == lightweight) {
+            return;
+        }
+        this.lightweight = lightweight;
+        if (lightweight) {
+            fpMain.setStyle(null);
+            stackPane.getChildren().setAll(rShadow, fpMain);
+        } else {
+            fpMain.setStyle(PANE_STYLE);
+            stackPane.getChildren().setAll(fpMain);
+        }
+        updatePulse();
+        updateIndicator();
+    }
+
+    /**
+     * 判斷是否使用低CPU用量的輕量模式。
+     *
+     * @return 傳回是否使用輕量模式
+     */
+    public boolean isLightweight() {
+        return lightweight;
+    }
+
+    /**
+     * 判斷擁有者是否已最小化。
+     *
+     * @return 傳回擁有者是否已最小化
+     */
+    private boolean isOwnerIconified() {
+        final Window owner = getOwner();
+        return owner instanceof Stage && ((Stage) owner).isIconified();
+    }
+
+    /**
+     * 依照目前的狀態啟動或停止畫面更新。
+     */
+    private void updatePulse() {
+        final boolean running = isShowing() && !isOwnerIconified();
+        if (lightweight) {
+            pulse.stop();
+            if (running) {
+                if (throttledPulseFuture == null) {
+                    final long period = 1000 / LIGHTWEIGHT_FRAME_RATE;
+                    throttledPulseFuture = Scheduler.INSTANCE.scheduleAtFixedRate(throttledPulse, period, period, TimeUnit.MILLISECONDS);
+                }
+            } else {
+                stopThrottledPulse();
+            }
+        } else {
+            stopThrottledPulse();
+            if (running && (progressMeter != null || logBuffer != null)) {
+                pulse.start();
+            } else {
+                pulse.stop();
+            }
+        }
+    }
+
+    /**
+     * 停止輕量模式的畫面更新。
+     */
+    private void stopThrottledPulse() {
+        if (throttledPulseFuture != null) {
+            throttledPulseFuture.cancel(false);
+            throttledPulseFuture = null;
+        }
+    }
+
+    /**
+     * 依照目前的狀態選擇要顯示的進度指示器。輕量模式下，不確定的進度會使用限制更新頻率的動畫；擁有者最小化時則移除進度指示器，讓它的動畫停止。
+     */
+    private void updateIndicator() {
+        final Node indicator;
+        if (lightweight && isOwnerIconified()) {
+            indicator = null;
+        } else if (lightweight && piLoading.isIndeterminate()) {
+            indicator = aSpinner;
+        } else {
+            indicator = piLoading;
+        }
+        final ObservableList<Node> children = spIndicator.getChildren();
+        if (indicator == null) {
+            children.clear();
+        } else if (children.size() != 1 || children.get(0) != indicator) {
+            children.setAll(indicator);
+        }
+    }
+
+    /**
+     * 設定進度來源。設定之後進度指示器將會顯示確切的進度與處理速度，並在對話框顯示期間每個畫面讀取一次進度來源。
+     *
+     * @param progressSource 傳入進度來源，若為null則顯示不確定的進度。若傳入ProgressMeter物件，對話框將直接使用它來計算處理速度與剩餘時間
+     */
+    public void setProgressSource(final ProgressSource progressSource) {
+        setProgressSource(progressSource, ProgressMeter.Unit.ITEMS);
+    }
+
+    /**
+     * 設定進度來源與工作量的單位。設定之後進度指示器將會顯示確切的進度與處理速度，並在對話框顯示期間每個畫面讀取一次進度來源。
+     *
+     * @param progressSource 傳入進度來源，若為null則顯示不確定的進度。若傳入ProgressMeter物件，對話框將直接使用它來計算處理速度與剩餘時間，並忽略傳入的單位
+     * @param unit 傳入工作量的單位
+     */
+    public void setProgressSource(final ProgressSource progressSource, final ProgressMeter.Unit unit) {
+        if (progressSource == null) {
+            progressMeter = null;
+            updatePulse();
+            piLoading.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+            updateIndicator();
+            fpMain.getChildren().remove(lStatistics);
+        } else {
+            if (progressSource instanceof ProgressMeter) {
+                progressMeter = (ProgressMeter) progressSource;
+            } else {
+                progressMeter = new ProgressMeter(progressSource, unit);
+            }
+            if (!fpMain.getChildren().contains(lStatistics)) {
+                lStatistics.setFont(lMessage.getFont());
+                fpMain.getChildren().add(fpMain.getChildren().indexOf(lMessage) + 1, lStatistics);
+            }
+            refresh();
+            updatePulse();
+            if (isShowing()) {
+                fitToContent();
+            }
+        }
+    }
+
+    /**
+     * 取得進度來源。
+     *
+     * @return 傳回進度來源
+     */
+    public ProgressSource getProgressSource() {
+        final ProgressMeter meter = progressMeter;
+        return meter == null ? null : meter.getSource();
+    }
+
+    /**
+     * 取得對話框用來計算處理速度與剩餘時間的進度計量器，其數值與對話框上顯示的一致。
+     *
+     * @return 傳回進度計量器，若沒有設定進度來源則回傳null
+     */
+    public ProgressMeter getProgressMeter() {
+        return progressMeter;
+    }
+
+    /**
+     * 設定要列出幾個最慢的子工作。只有在進度來源為ProgressAggregator時才會列出。
+     *
+     * @param count 傳入要列出的子工作數量，若小於等於0則不列出
+     */
+    public void setSlowestTaskCount(final int count) {
+        final int labelCount = Math.max(0, count);
+        taskLabels = new Label[labelCount];
+        for (int i = 0; i < labelCount; ++i) {
+            final Label label = new Label();
+            label.setFont(lMessage.getFont());
+            label.setMaxWidth(Integer.MAX_VALUE);
+            taskLabels[i] = label;
+        }
+        vbTasks.getChildren().setAll(taskLabels);
+        if (labelCount == 0) {
+            fpMain.getChildren().remove(vbTasks);
+        } else if (!fpMain.getChildren().contains(vbTasks)) {
+            fpMain.getChildren().add(vbTasks);
+        }
+        refresh();
+        if (isShowing()) {
+            fitToContent();
+        }
+    }
+
+    /**
+     * 設定按下取消按鈕時要執行的程式。設定之後對話框將會出現取消按鈕，按下取消按鈕或是Esc鍵即可取消工作。
+     *
+     * @param onCancel 傳入取消時要執行的程式，若為null則不能取消
+     */
+    public void setOnCancel(final Runnable onCancel) {
+        this.onCancel = onCancel;
+        if (onCancel == null) {
+            fpMain.getChildren().remove(hbCancel);
+        } else if (!fpMain.getChildren().contains(hbCancel)) {
+            bCancel.setFont(lMessage.getFont());
+            fpMain.getChildren().add(hbCancel);
+        }
+        if (isShowing()) {
+            fitToContent();
+        }
+    }
+
+    /**
+     * 取消時，取消傳入的Future物件並中斷執行它的執行緒。javafx.concurrent.Task也是一種Future物件。
+     *
+     * @param future 傳入要取消的Future物件
+     */
+    public void cancelOn(final Future<?> future) {
+        setOnCancel(() -> {
+            future.cancel(true);
+        });
+    }
+
+    /**
+     * 取消時，中斷傳入的執行緒。
+     *
+     * @param thread 傳入要中斷的執行緒
+     */
+    public void cancelOn(final Thread thread) {
+        setOnCancel(() -> {
+            thread.interrupt();
+        });
+    }
+
+    /**
+     * 設定取消按鈕的文字以及取消之後顯示的訊息。
+     *
+     * @param cancelText 傳入取消按鈕的文字，若為null則使用JavaFX在目前語系的取消按鈕文字
+     * @param cancellingMessage 傳入取消之後顯示的訊息，若為null則使用取消按鈕的文字加上「...」
+     */
+    public void setCancelText(final String cancelText, final String cancellingMessage) {
+        final String text = cancelText == null ? ButtonType.CANCEL.getText() : cancelText;
+        bCancel.setText(text);
+        this.cancellingMessage = cancellingMessage == null ? text.concat("...") : cancellingMessage;
+    }
+
+    /**
+     * 設定取消之後等待工作結束的寬限時間，超過寬限時間對話框就會直接關閉。
+     *
+     * @param cancelGracePeriod 傳入寬限時間(毫秒)
+     */
+    public void setCancelGracePeriod(final long cancelGracePeriod) {
+        this.cancelGracePeriod = Math.max(0, cancelGracePeriod);
+    }
+
+    /**
+     * 取消工作。取消之後取消按鈕將無法再按，對話框會在工作結束時或是寬限時間過後關閉。
+     */
+    public void cancel() {
+        final Runnable runnable = onCancel;
+        if (runnable == null || cancelled) {
+            return;
+        }
+        cancelled = true;
+        bCancel.setDisable(true);
+        lMessage.setText(cancellingMessage);
+        runnable.run();
+        if (isShowing()) {
+            cancelGraceTimer.setDuration(Duration.millis(cancelGracePeriod));
+            cancelGraceTimer.playFromStart();
+        }
+    }
+
+    /**
+     * 判斷工作是否已被取消。
+     *
+     * @return 傳回工作是否已被取消
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 設定要顯示日誌的緩衝區。對話框只會在畫面更新且有新日誌時，讀取最新的幾行並顯示出來。
+     *
+     * @param logBuffer 傳入日誌緩衝區，若為null則不顯示日誌
+     * @param visibleLines 傳入要顯示的行數
+     */
+    public void setLogBuffer(final LogBuffer logBuffer, final int visibleLines) {
+        this.logBuffer = logBuffer;
+        logSequence = -1;
+        if (logBuffer == null || visibleLines <= 0) {
+            this.logBuffer = null;
+            logLines = new String[0];
+            lvLog.getItems().clear();
+            fpMain.getChildren().remove(lvLog);
+            updatePulse();
+        } else {
+            logLines = new String[visibleLines];
+            lvLog.setPrefHeight(visibleLines * LOG_CELL_SIZE + 2);
+            if (!fpMain.getChildren().contains(lvLog)) {
+                fpMain.getChildren().add(fpMain.getChildren().contains(hbCancel) ? fpMain.getChildren().indexOf(hbCancel) : fpMain.getChildren().size(), lvLog);
+            }
+            refresh();
+            updatePulse();
+        }
+        if (isShowing()) {
+            fitToContent();
+        }
+    }
+
+    /**
+     * 取得顯示日誌的緩衝區。
+     *
+     * @return 傳回日誌緩衝區
+     */
+    public LogBuffer getLogBuffer() {
+        return logBuffer;
+    }
+
+    /**
+     * 更新畫面。
+     */
+    private void refresh() {
+        final long startTime = System.nanoTime();
+        refreshProgress();
+        refreshLog();
+
+        //只有在這次更新有新的進度或日誌時才發出事件
+        final ProgressMeter meter = progressMeter;
+        final long workDone = meter == null ? reportedWorkDone : meter.getWorkDone();
+        final long sequence = logSequence < 0 ? reportedLogSequence : logSequence;
+        if (workDone != reportedWorkDone || sequence != reportedLogSequence) {
+            DialogEvents.progressUpdated(workDone, meter == null ? 0 : meter.getTotalWork(), Math.max(0, workDone - reportedWorkDone), Math.max(0, sequence - reportedLogSequence), System.nanoTime() - startTime);
+            reportedWorkDone = workDone;
+            reportedLogSequence = sequence;
+        }
+    }
+
+    /**
+     * 從日誌緩衝區讀取最新的日誌並更新畫面。
+     */
+    private void refreshLog() {
+        final LogBuffer buffer = logBuffer;
+        if (buffer == null) {
+            return;
+        }
+        final long sequence = buffer.getSequence();
+        if (sequence == logSequence) {
+            return;
+        }
+        //只記錄已經連續寫入完成的序號，尚未寫入完成的日誌會在下次更新時再讀取
+        final int count = buffer.copyTail(logLines, publishedLogSequence);
+        logSequence = publishedLogSequence[0];
+        lvLog.getItems().setAll(Arrays.asList(logLines).subList(0, count));
+        Arrays.fill(logLines, null);
+    }
+
+    /**
+     * 從進度來源讀取進度並更新畫面。
+     */
+    private void refreshProgress() {
+        final ProgressMeter meter = progressMeter;
+        if (meter == null) {
+            return;
+        }
+        final long totalWork = meter.getTotalWork();
+        if (totalWork > 0) {
+            piLoading.setProgress(Math.min(1, (double) meter.getWorkDone() / totalWork));
+        } else {
+            piLoading.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        }
+        updateIndicator();
+
+        meter.sample();
+        final String statistics = meter.toString();
+        if (!statistics.equals(lStatistics.getText())) {
+            lStatistics.setText(statistics);
+        }
+
+        final ProgressSource source = meter.getSource();
+
+        final int labelCount = taskLabels.length;
+        if (labelCount > 0 && source instanceof ProgressAggregator) {
+            final List<ProgressAggregator.Task> tasks = ((ProgressAggregator) source).getSlowestTasks(labelCount);
+            final int taskCount = tasks.size();
+            for (int i = 0; i < labelCount; ++i) {
+                final String text;
+                if (i < taskCount) {
+                    final ProgressAggregator.Task task = tasks.get(i);
+                    text = String.format("%s  %d%%  %.1fs", task.getName(), (int) (task.getProgress() * 100), task.getElapsedTime() / 1000.0);
+                } else {
+                    text = "";
+                }
+                if (!text.equals(taskLabels[i].getText())) {
+                    taskLabels[i].setText(text);
+                }
+            }
+        }
+    }
+
+    /**
+     * 依照內容調整對話框的高度。
+     */
+    private void fitToContent() {
+        stackPane.applyCss();
+        final double height = Math.max(HEIGHT, Math.ceil(stackPane.prefHeight(WIDTH)));
+        setWidth(WIDTH);
+        setHeight(height);
+        centerToOwner();
+    }
+
     /**
      * 取得對話框的窗格物件。
      *
@@ -114,8 +689,8 @@ public class SimpleProgressDialog extends Stage {
     public final void centerToOwner() {
         final Window owner = getOwner();
         if (owner != null) {
-            final double width = WIDTH;
-            final double height = HEIGHT;
+            final double width = getDialogWidth();
+            final double height = getDialogHeight();
             final double ownerWidth = owner.getWidth();
             final double ownerHeight = owner.getHeight();
             final double ownerX = owner.getX();
@@ -129,8 +704,28 @@ public class SimpleProgressDialog extends Stage {
         } else {
             //螢幕置中
             final Rectangle2D screen = Screen.getPrimary().getVisualBounds();
-            setX((screen.getWidth() - WIDTH) / 2);
-            setY((screen.getHeight() - HEIGHT) / 2);
+            setX((screen.getWidth() - getDialogWidth()) / 2);
+            setY((screen.getHeight() - getDialogHeight()) / 2);
         }
     }
+
+    /**
+     * 取得對話框的寬度。
+     *
+     * @return 傳回對話框的寬度
+     */
+    private double getDialogWidth() {
+        final double width = getWidth();
+        return Double.isNaN(width) ? WIDTH : width;
+    }
+
+    /**
+     * 取得對話框的高度。
+     *
+     * @return 傳回對話框的高度
+     */
+    private double getDialogHeight() {
+        final double height = getHeight();
+        return Double.isNaN(height) ? HEIGHT : height;
+    }
 }
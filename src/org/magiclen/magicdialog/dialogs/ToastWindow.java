@@ -0,0 +1,246 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.dialogs;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javafx.animation.PauseTransition;
+import javafx.geometry.Insets;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * 非強制回應的通知視窗。每個螢幕只有一個會重複使用的通知視窗，通知只會更新固定數量的標籤，不會建立新的視窗。此類別只能在JavaFX的應用程式執行緒上使用。
+ *
+ * @author Magic Len
+ */
+public final class ToastWindow extends Stage {
+
+    // -----類別常數-----
+    private static final int CELL_COUNT = 4;
+    private static final int HISTORY_SIZE = 64;
+    private static final int HISTORY_MASK = HISTORY_SIZE - 1;
+    private static final int WIDTH = 320;
+    private static final int GAP = 8;
+    private static final int MARGIN = 16;
+    private static final String CELL_STYLE = "-fx-background-color: %s; -fx-background-radius: 6; -fx-text-fill: white; -fx-padding: 10 14 10 14;";
+    private static final Map<Screen, ToastWindow> WINDOWS = new HashMap<>();
+
+    // -----類別方法-----
+    /**
+     * 取得螢幕的通知視窗，若還沒有則建立一個。
+     *
+     * @param screen 傳入螢幕，若為null則使用主要螢幕
+     * @return 傳回通知視窗
+     */
+    public static ToastWindow getInstance(final Screen screen) {
+        //移除已經中斷連線的螢幕上的通知視窗
+        final Iterator<Map.Entry<Screen, ToastWindow>> iterator = WINDOWS.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Screen, ToastWindow> entry = iterator.next();
+            if (!Screen.getScreens().contains(entry.getKey())) {
+                entry.getValue().close();
+                iterator.remove();
+            }
+        }
+        final Screen actualScreen = screen == null ? Screen.getPrimary() : screen;
+        ToastWindow window = WINDOWS.get(actualScreen);
+        if (window == null) {
+            window = new ToastWindow(actualScreen);
+            WINDOWS.put(actualScreen, window);
+        }
+        return window;
+    }
+
+    /**
+     * 取得Window所在的螢幕。
+     *
+     * @param window 傳入Window
+     * @return 傳回Window所在的螢幕，若Window為null則回傳主要螢幕
+     */
+    public static Screen getScreen(final Window window) {
+        if (window != null && !Double.isNaN(window.getX())) {
+            for (final Screen screen : Screen.getScreensForRectangle(window.getX(), window.getY(), Math.max(1, window.getWidth()), Math.max(1, window.getHeight()))) {
+                return screen;
+            }
+        }
+        return Screen.getPrimary();
+    }
+
+    // -----物件常數-----
+    private final Screen screen;
+    private final Label[] cells = new Label[CELL_COUNT];
+    private final int[] cellEntries = new int[CELL_COUNT];
+    private final String[] texts = new String[HISTORY_SIZE];
+    private final String[] colors = new String[HISTORY_SIZE];
+    private final Font[] fonts = new Font[HISTORY_SIZE];
+    private final long[] expiryTimes = new long[HISTORY_SIZE];
+    private final VBox vbCells;
+    private final PauseTransition expiryTimer;
+    private final Stage hiddenOwner;
+
+    // -----物件變數-----
+    private long count;
+    private Window focusOwner;
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，請使用getInstance方法取得通知視窗。
+     *
+     * @param screen 傳入通知視窗所在的螢幕
+     */
+    private ToastWindow(final Screen screen) {
+        this.screen = screen;
+
+        vbCells = new VBox(GAP);
+        vbCells.setPadding(new Insets(GAP));
+        vbCells.setPrefWidth(WIDTH);
+        vbCells.setStyle("-fx-background-color: transparent;");
+        for (int i = 0; i < CELL_COUNT; ++i) {
+            final int cellIndex = i;
+            final Label cell = new Label();
+            cell.setWrapText(true);
+            cell.setMaxWidth(Integer.MAX_VALUE);
+            cell.setOnMouseClicked(e -> {
+                //點一下就關閉通知
+                expiryTimes[cellEntries[cellIndex]] = 0;
+                refresh();
+            });
+            cells[i] = cell;
+        }
+
+        expiryTimer = new PauseTransition();
+        expiryTimer.setOnFinished(e -> {
+            refresh();
+        });
+
+        //以看不見的工具視窗作為擁有者，讓通知視窗不會出現在工作列上
+        hiddenOwner = new Stage(StageStyle.UTILITY);
+        hiddenOwner.setOpacity(0);
+        hiddenOwner.setWidth(1);
+        hiddenOwner.setHeight(1);
+        hiddenOwner.setX(screen.getVisualBounds().getMinX());
+        hiddenOwner.setY(screen.getVisualBounds().getMinY());
+        hiddenOwner.setScene(new Scene(new Pane()));
+        initOwner(hiddenOwner);
+
+        setScene(new Scene(vbCells, Color.TRANSPARENT));
+        initStyle(StageStyle.TRANSPARENT);
+        setAlwaysOnTop(true);
+        setResizable(false);
+    }
+
+    // -----物件方法-----
+    /**
+     * 顯示一則通知。通知會存放在固定大小的環狀緩衝區中，畫面上只會顯示最新且尚未過期的幾則。
+     *
+     * @param text 傳入通知的文字
+     * @param color 傳入通知的背景顏色(CSS格式)
+     * @param font 傳入通知的字型
+     * @param duration 傳入通知的顯示時間(毫秒)
+     * @param owner 傳入發出通知的Window，若這個Window目前有焦點，顯示通知視窗之後會把焦點還給它，可以為null
+     */
+    public void push(final String text, final String color, final Font font, final long duration, final Window owner) {
+        focusOwner = owner;
+        final int index = (int) (count++ & HISTORY_MASK);
+        texts[index] = text;
+        colors[index] = color;
+        fonts[index] = font;
+        expiryTimes[index] = System.currentTimeMillis() + Math.max(0, duration);
+        refresh();
+    }
+
+    /**
+     * 取得通知視窗所在的螢幕。
+     *
+     * @return 傳回螢幕
+     */
+    public Screen getToastScreen() {
+        return screen;
+    }
+
+    /**
+     * 依照目前的通知更新標籤，沒有通知時隱藏視窗。
+     */
+    private void refresh() {
+        final long now = System.currentTimeMillis();
+        long nextExpiryTime = Long.MAX_VALUE;
+        int cellCount = 0;
+        final long start = Math.max(0, count - HISTORY_SIZE);
+        for (long i = count - 1; i >= start && cellCount < CELL_COUNT; --i) {
+            final int index = (int) (i & HISTORY_MASK);
+            final long expiryTime = expiryTimes[index];
+            if (expiryTime <= now) {
+                continue;
+            }
+            nextExpiryTime = Math.min(nextExpiryTime, expiryTime);
+            final Label cell = cells[cellCount];
+            cell.setText(texts[index]);
+            cell.setFont(fonts[index]);
+            cell.setStyle(String.format(CELL_STYLE, colors[index]));
+            cellEntries[cellCount] = index;
+            ++cellCount;
+        }
+
+        //最新的通知在最下方
+        final Label[] visibleCells = new Label[cellCount];
+        for (int i = 0; i < cellCount; ++i) {
+            visibleCells[i] = cells[cellCount - 1 - i];
+        }
+        vbCells.getChildren().setAll(visibleCells);
+
+        if (cellCount == 0) {
+            expiryTimer.stop();
+            hide();
+            hiddenOwner.hide();
+            focusOwner = null;
+            return;
+        }
+
+        expiryTimer.stop();
+        expiryTimer.setDuration(Duration.millis(nextExpiryTime - now));
+        expiryTimer.playFromStart();
+
+        if (!isShowing()) {
+            //避免搶走發出通知的視窗的焦點
+            final Window window = focusOwner;
+            final boolean focused = window != null && window.isFocused();
+            hiddenOwner.show();
+            show();
+            if (focused) {
+                window.requestFocus();
+            }
+        }
+        focusOwner = null;
+        sizeToScene();
+        final Rectangle2D bounds = screen.getVisualBounds();
+        setX(bounds.getMaxX() - getWidth() - MARGIN);
+        setY(bounds.getMaxY() - getHeight() - MARGIN);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * 對話框的音效開始播放。
+ *
+ * @author Magic Len
+ */
+@Name("org.magiclen.magicdialog.AudioPlay")
+@Label("Audio Play")
+@Category("MagicDialog")
+@Description("對話框的音效開始播放。")
+final class AudioPlayEvent extends Event {
+
+    // -----類別方法-----
+    /**
+     * 若事件有被啟用，則發出事件。
+     *
+     * @param clip 傳入音效檔的名稱
+     * @param loadTime 傳入載入音效並開始播放所花的時間，單位為奈秒
+     * @param cacheHit 傳入音效是否來自快取
+     * @param succeeded 傳入是否成功播放
+     */
+    static void emit(final String clip, final long loadTime, final boolean cacheHit, final boolean succeeded) {
+        final AudioPlayEvent event = new AudioPlayEvent();
+        if (event.shouldCommit()) {
+            event.clip = clip;
+            event.loadTime = loadTime;
+            event.cacheHit = cacheHit;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    // -----物件變數-----
+    @Label("Clip")
+    String clip;
+
+    @Label("Load Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long loadTime;
+
+    @Label("Cache Hit")
+    boolean cacheHit;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
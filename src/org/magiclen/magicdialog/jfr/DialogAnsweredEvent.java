@@ -0,0 +1,66 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * 使用者回應了對話框。
+ *
+ * @author Magic Len
+ */
+@Name("org.magiclen.magicdialog.DialogAnswered")
+@Label("Dialog Answered")
+@Category("MagicDialog")
+@Description("使用者回應了對話框。")
+final class DialogAnsweredEvent extends Event {
+
+    // -----類別方法-----
+    /**
+     * 若事件有被啟用，則發出事件。
+     *
+     * @param builder 傳入對話框設定類別的名稱
+     * @param button 傳入使用者按下的按鈕
+     * @param latency 傳入對話框完成顯示後到使用者回應所花的時間，單位為奈秒
+     */
+    static void emit(final String builder, final String button, final long latency) {
+        final DialogAnsweredEvent event = new DialogAnsweredEvent();
+        if (event.shouldCommit()) {
+            event.builder = builder;
+            event.button = button;
+            event.latency = latency;
+            event.commit();
+        }
+    }
+
+    // -----物件變數-----
+    @Label("Builder")
+    String builder;
+
+    @Label("Button")
+    String button;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * 對話框被建立。
+ *
+ * @author Magic Len
+ */
+@Name("org.magiclen.magicdialog.DialogCreate")
+@Label("Dialog Create")
+@Category("MagicDialog")
+@Description("對話框被建立。")
+final class DialogCreateEvent extends Event {
+
+    // -----類別方法-----
+    /**
+     * 若事件有被啟用，則發出事件。
+     *
+     * @param builder 傳入對話框設定類別的名稱
+     * @param dialogType 傳入對話框的類型
+     * @param buttonCount 傳入按鈕的數量
+     * @param createTime 傳入建立對話框所花的時間，單位為奈秒
+     */
+    static void emit(final String builder, final String dialogType, final int buttonCount, final long createTime) {
+        final DialogCreateEvent event = new DialogCreateEvent();
+        if (event.shouldCommit()) {
+            event.builder = builder;
+            event.dialogType = dialogType;
+            event.buttonCount = buttonCount;
+            event.createTime = createTime;
+            event.commit();
+        }
+    }
+
+    // -----物件變數-----
+    @Label("Builder")
+    String builder;
+
+    @Label("Dialog Type")
+    String dialogType;
+
+    @Label("Button Count")
+    int buttonCount;
+
+    @Label("Create Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long createTime;
+}
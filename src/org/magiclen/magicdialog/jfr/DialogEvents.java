@@ -0,0 +1,120 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.jfr;
+
+/**
+ * 發出對話框事件的入口。執行環境沒有Java Flight Recorder時，所有方法都不做任何事；事件沒有被啟用時，只會花費一次判斷的時間。
+ *
+ * @author Magic Len
+ */
+public final class DialogEvents {
+
+    // -----類別常數-----
+    private static final boolean AVAILABLE = isAvailable();
+
+    // -----類別方法-----
+    /**
+     * 判斷執行環境是否有Java Flight Recorder。
+     *
+     * @return 傳回執行環境是否有Java Flight Recorder
+     */
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, DialogEvents.class.getClassLoader());
+            return true;
+        } catch (final ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * 發出對話框被建立的事件。
+     *
+     * @param builder 傳入對話框設定類別的名稱
+     * @param dialogType 傳入對話框的類型
+     * @param buttonCount 傳入按鈕的數量
+     * @param createTime 傳入建立對話框所花的時間，單位為奈秒
+     */
+    public static void dialogCreated(final String builder, final String dialogType, final int buttonCount, final long createTime) {
+        if (AVAILABLE) {
+            DialogCreateEvent.emit(builder, dialogType, buttonCount, createTime);
+        }
+    }
+
+    /**
+     * 發出對話框完成顯示的事件。
+     *
+     * @param builder 傳入對話框設定類別的名稱
+     * @param showTime 傳入對話框從開始顯示到完成顯示所花的時間，單位為奈秒
+     */
+    public static void dialogShown(final String builder, final long showTime) {
+        if (AVAILABLE) {
+            DialogShownEvent.emit(builder, showTime);
+        }
+    }
+
+    /**
+     * 發出使用者回應了對話框的事件。
+     *
+     * @param builder 傳入對話框設定類別的名稱
+     * @param button 傳入使用者按下的按鈕
+     * @param latency 傳入對話框完成顯示後到使用者回應所花的時間，單位為奈秒
+     */
+    public static void dialogAnswered(final String builder, final String button, final long latency) {
+        if (AVAILABLE) {
+            DialogAnsweredEvent.emit(builder, button, latency);
+        }
+    }
+
+    /**
+     * 發出音效開始播放的事件。
+     *
+     * @param clip 傳入音效檔的名稱
+     * @param loadTime 傳入載入音效並開始播放所花的時間，單位為奈秒
+     * @param cacheHit 傳入音效是否來自快取
+     * @param succeeded 傳入是否成功播放
+     */
+    public static void audioPlayed(final String clip, final long loadTime, final boolean cacheHit, final boolean succeeded) {
+        if (AVAILABLE) {
+            AudioPlayEvent.emit(clip, loadTime, cacheHit, succeeded);
+        }
+    }
+
+    /**
+     * 發出進度對話框套用了累積的進度與日誌的事件。
+     *
+     * @param workDone 傳入已完成的工作量
+     * @param totalWork 傳入總工作量
+     * @param workDelta 傳入自上一次畫面更新後完成的工作量
+     * @param logLines 傳入自上一次畫面更新後新增的日誌行數
+     * @param refreshTime 傳入更新畫面所花的時間，單位為奈秒
+     */
+    public static void progressUpdated(final long workDone, final long totalWork, final long workDelta, final long logLines, final long refreshTime) {
+        if (AVAILABLE) {
+            ProgressUpdateBatchEvent.emit(workDone, totalWork, workDelta, logLines, refreshTime);
+        }
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private DialogEvents() {
+
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * 對話框完成顯示。
+ *
+ * @author Magic Len
+ */
+@Name("org.magiclen.magicdialog.DialogShown")
+@Label("Dialog Shown")
+@Category("MagicDialog")
+@Description("對話框完成顯示。")
+final class DialogShownEvent extends Event {
+
+    // -----類別方法-----
+    /**
+     * 若事件有被啟用，則發出事件。
+     *
+     * @param builder 傳入對話框設定類別的名稱
+     * @param showTime 傳入對話框從開始顯示到完成顯示所花的時間，單位為奈秒
+     */
+    static void emit(final String builder, final long showTime) {
+        final DialogShownEvent event = new DialogShownEvent();
+        if (event.shouldCommit()) {
+            event.builder = builder;
+            event.showTime = showTime;
+            event.commit();
+        }
+    }
+
+    // -----物件變數-----
+    @Label("Builder")
+    String builder;
+
+    @Label("Show Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long showTime;
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 進度對話框在一次畫面更新中套用了累積的進度與日誌。
+ *
+ * @author Magic Len
+ */
+@Name("org.magiclen.magicdialog.ProgressUpdateBatch")
+@Label("Progress Update Batch")
+@Category("MagicDialog")
+@Description("進度對話框在一次畫面更新中套用了累積的進度與日誌。")
+@StackTrace(false)
+final class ProgressUpdateBatchEvent extends Event {
+
+    // -----類別方法-----
+    /**
+     * 若事件有被啟用，則發出事件。
+     *
+     * @param workDone 傳入已完成的工作量
+     * @param totalWork 傳入總工作量
+     * @param workDelta 傳入自上一次畫面更新後完成的工作量
+     * @param logLines 傳入自上一次畫面更新後新增的日誌行數
+     * @param refreshTime 傳入更新畫面所花的時間，單位為奈秒
+     */
+    static void emit(final long workDone, final long totalWork, final long workDelta, final long logLines, final long refreshTime) {
+        final ProgressUpdateBatchEvent event = new ProgressUpdateBatchEvent();
+        if (event.shouldCommit()) {
+            event.workDone = workDone;
+            event.totalWork = totalWork;
+            event.workDelta = workDelta;
+            event.logLines = logLines;
+            event.refreshTime = refreshTime;
+            event.commit();
+        }
+    }
+
+    // -----物件變數-----
+    @Label("Work Done")
+    long workDone;
+
+    @Label("Total Work")
+    long totalWork;
+
+    @Label("Work Delta")
+    @Description("自上一次畫面更新後完成的工作量")
+    long workDelta;
+
+    @Label("Log Lines")
+    @Description("自上一次畫面更新後新增的日誌行數")
+    long logLines;
+
+    @Label("Refresh Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long refreshTime;
+}
@@ -0,0 +1,149 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.progress;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 固定容量的日誌環狀緩衝區。任意執行緒都可以不經鎖定地加入日誌，超過容量時最舊的日誌會被覆蓋，因此記憶體用量不會無限增長。進度對話框只會在畫面更新時讀取最新的幾行。
+ *
+ * @author Magic Len
+ */
+public class LogBuffer {
+
+    // -----內部類別-----
+    /**
+     * 緩衝區中的一行日誌。
+     */
+    private static final class Entry {
+
+        private final long sequence;
+        private final String line;
+
+        private Entry(final long sequence, final String line) {
+            this.sequence = sequence;
+            this.line = line;
+        }
+    }
+
+    // -----類別常數-----
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    // -----物件常數-----
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // -----建構子-----
+    /**
+     * 建構子，容量為1024行。
+     */
+    public LogBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 建構子。
+     *
+     * @param capacity 傳入最多保留幾行日誌，實際的容量會調整為2的次方
+     */
+    public LogBuffer(final int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, Math.min(capacity, 1 << 30)) * 2 - 1);
+        entries = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    // -----物件方法-----
+    /**
+     * 加入一行日誌，可以在任意執行緒上呼叫。
+     *
+     * @param line 傳入日誌
+     */
+    public void append(final String line) {
+        final long index = sequence.getAndIncrement();
+        //只需要有序寫入，讀取端遇到尚未看見的位置會停下來，下次複製時再取得
+        entries.lazySet((int) (index & mask), new Entry(index, line));
+    }
+
+    /**
+     * 將最新的幾行日誌由舊到新複製到傳入的陣列中，不會另外配置記憶體。
+     *
+     * @param lines 傳入用來存放日誌的陣列，陣列的長度即為最多要複製的行數
+     * @return 傳回實際複製的行數
+     */
+    public int copyTail(final String[] lines) {
+        return copyTail(lines, null);
+    }
+
+    /**
+     * 將最新的幾行日誌由舊到新複製到傳入的陣列中，不會另外配置記憶體。其他執行緒可能已經取得序號但還沒寫入日誌，複製會在第一個尚未寫入完成的位置停止，之後的日誌要等到寫入完成後再次複製時才會取得。
+     *
+     * @param lines 傳入用來存放日誌的陣列，陣列的長度即為最多要複製的行數
+     * @param published 傳入用來存放已連續寫入完成的日誌總行數的陣列，結果會放在索引0的位置，若為null則不存放
+     * @return 傳回實際複製的行數
+     */
+    public int copyTail(final String[] lines, final long[] published) {
+        final long end = sequence.get();
+        final long start = Math.max(0, end - Math.min(lines.length, entries.length()));
+        int count = 0;
+        long i = start;
+        for (; i < end; ++i) {
+            final Entry entry = entries.get((int) (i & mask));
+            if (entry == null || entry.sequence < i) {
+                //尚未寫入完成
+                break;
+            }
+            //已被較新的日誌覆蓋的位置直接略過
+            if (entry.sequence == i) {
+                lines[count++] = entry.line;
+            }
+        }
+        if (published != null) {
+            published[0] = i;
+        }
+        return count;
+    }
+
+    /**
+     * 取得目前為止加入的日誌總行數，可以用來判斷是否有新的日誌。
+     *
+     * @return 傳回加入的日誌總行數
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * 取得因為超過容量而被覆蓋的日誌行數。
+     *
+     * @return 傳回被覆蓋的日誌行數
+     */
+    public long getDroppedCount() {
+        return Math.max(0, sequence.get() - entries.length());
+    }
+
+    /**
+     * 取得緩衝區的容量。
+     *
+     * @return 傳回緩衝區的容量
+     */
+    public int getCapacity() {
+        return entries.length();
+    }
+}
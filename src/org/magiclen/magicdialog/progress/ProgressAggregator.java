@@ -0,0 +1,279 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.progress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 聚合多個子工作的進度來源。任意數量的子工作都可以註冊到同一個進度對話框中，各子工作的進度會以分散的計數器加總，避免多執行緒同時回報進度時互相競爭。
+ *
+ * @author Magic Len
+ */
+public class ProgressAggregator implements ProgressSource {
+
+    // -----內部類別-----
+    /**
+     * 註冊於聚合器中的子工作。
+     */
+    public static final class Task {
+
+        // -----類別常數-----
+        private static final AtomicLongFieldUpdater<Task> WORK_DONE = AtomicLongFieldUpdater.newUpdater(Task.class, "workDone");
+        private static final AtomicIntegerFieldUpdater<Task> FINISHED = AtomicIntegerFieldUpdater.newUpdater(Task.class, "finished");
+
+        // -----物件常數-----
+        private final ProgressAggregator aggregator;
+        private final String name;
+        private final long totalWork;
+        private final long startTime;
+
+        // -----物件變數-----
+        private volatile long workDone;
+        private volatile long finishTime;
+        private volatile int finished;
+
+        // -----建構子-----
+        private Task(final ProgressAggregator aggregator, final String name, final long totalWork) {
+            this.aggregator = aggregator;
+            this.name = name;
+            this.totalWork = totalWork;
+            this.startTime = System.nanoTime();
+        }
+
+        // -----物件方法-----
+        /**
+         * 增加已完成的工作量，可以在任意執行緒上呼叫。已完成的工作量不會超過全部的工作量，因此與done方法同時呼叫時，也不會多算工作量。
+         *
+         * @param workDone 傳入增加的工作量
+         */
+        public void advance(final long workDone) {
+            if (workDone <= 0 || finished != 0) {
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = this.workDone;
+                if (current >= totalWork) {
+                    return;
+                }
+                next = current + Math.min(workDone, totalWork - current);
+            } while (!WORK_DONE.compareAndSet(this, current, next));
+            aggregator.workDone.add(next - current);
+        }
+
+        /**
+         * 將子工作標記為已完成，未回報的工作量將直接計入已完成的工作量。
+         */
+        public void done() {
+            if (!FINISHED.compareAndSet(this, 0, 1)) {
+                return;
+            }
+            final long remainingWork = totalWork - WORK_DONE.getAndSet(this, totalWork);
+            if (remainingWork != 0) {
+                aggregator.workDone.add(remainingWork);
+            }
+            finishTime = System.nanoTime();
+            aggregator.finish(this);
+        }
+
+        /**
+         * 取得子工作的名稱。
+         *
+         * @return 傳回子工作的名稱
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 取得子工作已完成的工作量。
+         *
+         * @return 傳回子工作已完成的工作量
+         */
+        public long getWorkDone() {
+            return workDone;
+        }
+
+        /**
+         * 取得子工作全部的工作量。
+         *
+         * @return 傳回子工作全部的工作量
+         */
+        public long getTotalWork() {
+            return totalWork;
+        }
+
+        /**
+         * 取得子工作的完成比例。
+         *
+         * @return 傳回0到1之間的完成比例
+         */
+        public double getProgress() {
+            if (totalWork <= 0) {
+                return finishTime != 0 ? 1 : 0;
+            }
+            return Math.min(1, (double) workDone / totalWork);
+        }
+
+        /**
+         * 取得子工作已經執行的時間。
+         *
+         * @return 傳回子工作已經執行的時間(毫秒)
+         */
+        public long getElapsedTime() {
+            final long endTime = finishTime != 0 ? finishTime : System.nanoTime();
+            return (endTime - startTime) / 1000000;
+        }
+
+        /**
+         * 判斷子工作是否已完成。
+         *
+         * @return 傳回子工作是否已完成
+         */
+        public boolean isDone() {
+            return finishTime != 0;
+        }
+
+        /**
+         * 依照目前的速度推算子工作全部完成所需的時間，用來找出最慢的子工作。
+         *
+         * @param now 傳入目前的時間(奈秒)
+         * @return 傳回推算出來的總執行時間(奈秒)，若尚無任何進度則回傳無限大
+         */
+        private double estimateDuration(final long now) {
+            final double progress = getProgress();
+            if (progress <= 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return (now - startTime) / progress;
+        }
+    }
+
+    /**
+     * 子工作在某個時間點推算出來的總執行時間。
+     */
+    private static final class Estimate {
+
+        private final Task task;
+        private final double duration;
+
+        Estimate(final Task task, final double duration) {
+            this.task = task;
+            this.duration = duration;
+        }
+    }
+
+    // -----物件常數-----
+    private final LongAdder workDone = new LongAdder();
+    private final LongAdder totalWork = new LongAdder();
+    private final LongAdder finishedTaskCount = new LongAdder();
+    private final Set<Task> runningTasks = ConcurrentHashMap.newKeySet();
+
+    // -----物件方法-----
+    /**
+     * 註冊新的子工作，可以在任意執行緒上呼叫。
+     *
+     * @param name 傳入子工作的名稱
+     * @param totalWork 傳入子工作全部的工作量
+     * @return 傳回子工作，用來回報進度
+     */
+    public Task register(final String name, final long totalWork) {
+        final Task task = new Task(this, name, Math.max(0, totalWork));
+        this.totalWork.add(task.totalWork);
+        runningTasks.add(task);
+        return task;
+    }
+
+    /**
+     * 子工作已完成。
+     *
+     * @param task 傳入已完成的子工作
+     */
+    private void finish(final Task task) {
+        if (runningTasks.remove(task)) {
+            finishedTaskCount.increment();
+        }
+    }
+
+    @Override
+    public long getWorkDone() {
+        return workDone.sum();
+    }
+
+    @Override
+    public long getTotalWork() {
+        return totalWork.sum();
+    }
+
+    /**
+     * 取得尚在執行中的子工作數量。
+     *
+     * @return 傳回尚在執行中的子工作數量
+     */
+    public int getRunningTaskCount() {
+        return runningTasks.size();
+    }
+
+    /**
+     * 取得已完成的子工作數量。
+     *
+     * @return 傳回已完成的子工作數量
+     */
+    public long getFinishedTaskCount() {
+        return finishedTaskCount.sum();
+    }
+
+    /**
+     * 取得執行中最慢的子工作。子工作的快慢是依照目前的速度推算出來的總執行時間來決定的。
+     *
+     * @param count 傳入最多要取得幾個子工作
+     * @return 傳回由慢到快排列的子工作
+     */
+    public List<Task> getSlowestTasks(final int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        final long now = System.nanoTime();
+        //子工作的進度會被其他執行緒持續更新，先取得推算時間的快照再比較，排序時的比較結果才會一致
+        final Comparator<Estimate> comparator = Comparator.<Estimate>comparingDouble(estimate -> estimate.duration).thenComparingLong(estimate -> -estimate.task.startTime);
+        final PriorityQueue<Estimate> slowest = new PriorityQueue<>(count + 1, comparator);
+        for (final Task task : runningTasks) {
+            slowest.offer(new Estimate(task, task.estimateDuration(now)));
+            if (slowest.size() > count) {
+                slowest.poll();
+            }
+        }
+        final ArrayList<Estimate> estimates = new ArrayList<>(slowest);
+        estimates.sort(comparator.reversed());
+        final ArrayList<Task> list = new ArrayList<>(estimates.size());
+        for (final Estimate estimate : estimates) {
+            list.add(estimate.task);
+        }
+        return list;
+    }
+}
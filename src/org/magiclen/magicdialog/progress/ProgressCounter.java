@@ -0,0 +1,87 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.progress;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 簡單的進度計數器，可以在任意執行緒上增加已完成的工作量，每次增加只需要一次不互相競爭的加法，不會觸碰任何的使用者介面。
+ *
+ * @author Magic Len
+ */
+public class ProgressCounter implements ProgressSource {
+
+    // -----物件常數-----
+    private final LongAdder workDone = new LongAdder();
+
+    // -----物件變數-----
+    private volatile long totalWork;
+
+    // -----建構子-----
+    /**
+     * 建構子，全部的工作量不確定。
+     */
+    public ProgressCounter() {
+        this(0);
+    }
+
+    /**
+     * 建構子。
+     *
+     * @param totalWork 傳入全部的工作量
+     */
+    public ProgressCounter(final long totalWork) {
+        this.totalWork = totalWork;
+    }
+
+    // -----物件方法-----
+    /**
+     * 增加已完成的工作量。
+     *
+     * @param workDone 傳入增加的工作量
+     */
+    public void add(final long workDone) {
+        this.workDone.add(workDone);
+    }
+
+    /**
+     * 設定全部的工作量。
+     *
+     * @param totalWork 傳入全部的工作量，若不確定則傳入小於等於0的數值
+     */
+    public void setTotalWork(final long totalWork) {
+        this.totalWork = totalWork;
+    }
+
+    /**
+     * 將已完成的工作量歸零。
+     */
+    public void reset() {
+        workDone.reset();
+    }
+
+    @Override
+    public long getWorkDone() {
+        return workDone.sum();
+    }
+
+    @Override
+    public long getTotalWork() {
+        return totalWork;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.progress;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 會將讀取的位元組數量累加到進度計數器的輸入串流。
+ *
+ * @author Magic Len
+ */
+public class ProgressInputStream extends FilterInputStream {
+
+    // -----物件常數-----
+    private final ProgressCounter counter;
+
+    // -----物件變數-----
+    private long mark = -1;
+    private long position;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param in 傳入要讀取的輸入串流
+     * @param counter 傳入進度計數器
+     */
+    public ProgressInputStream(final InputStream in, final ProgressCounter counter) {
+        super(in);
+        if (counter == null) {
+            throw new NullPointerException("The progress counter cannot be null.");
+        }
+        this.counter = counter;
+    }
+
+    // -----物件方法-----
+    @Override
+    public int read() throws IOException {
+        final int b = in.read();
+        if (b >= 0) {
+            ++position;
+            counter.add(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int n = in.read(b, off, len);
+        if (n > 0) {
+            position += n;
+            counter.add(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final long skipped = in.skip(n);
+        if (skipped > 0) {
+            position += skipped;
+            counter.add(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public synchronized void mark(final int readlimit) {
+        in.mark(readlimit);
+        mark = position;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        if (mark < 0) {
+            throw new IOException("Mark not set.");
+        }
+        in.reset();
+        //退回重讀的部份不重複計算
+        counter.add(mark - position);
+        position = mark;
+    }
+}
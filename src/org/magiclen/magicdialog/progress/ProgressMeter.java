@@ -0,0 +1,205 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.progress;
+
+/**
+ * 進度計量器，用指數加權移動平均(EWMA)計算進度來源的處理速度，並推算剩餘時間。進度對話框與監控程式可以讀取同一個計量器，得到一樣的數值。
+ *
+ * @author Magic Len
+ */
+public class ProgressMeter implements ProgressSource {
+
+    // -----類別列舉-----
+    /**
+     * 工作量的單位。
+     */
+    public static enum Unit {
+
+        ITEMS, BYTES;
+    }
+
+    // -----類別常數-----
+    private static final long SAMPLE_INTERVAL = 250000000L;
+    private static final double TIME_CONSTANT = 5000000000.0;
+    private static final String[] BYTE_UNITS = {"B", "KiB", "MiB", "GiB", "TiB"};
+
+    // -----物件常數-----
+    private final ProgressSource source;
+    private final Unit unit;
+
+    // -----物件變數-----
+    private long lastSampleTime;
+    private long lastWorkDone;
+    private volatile double rate = Double.NaN;
+    private volatile long remainingTime = -1;
+
+    // -----建構子-----
+    /**
+     * 建構子，工作量的單位為項目。
+     *
+     * @param source 傳入要計量的進度來源
+     */
+    public ProgressMeter(final ProgressSource source) {
+        this(source, Unit.ITEMS);
+    }
+
+    /**
+     * 建構子。
+     *
+     * @param source 傳入要計量的進度來源
+     * @param unit 傳入工作量的單位
+     */
+    public ProgressMeter(final ProgressSource source, final Unit unit) {
+        if (source == null) {
+            throw new NullPointerException("The progress source cannot be null.");
+        }
+        this.source = source;
+        this.unit = unit == null ? Unit.ITEMS : unit;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取樣進度來源並更新速度與剩餘時間，可以在任意執行緒上呼叫。兩次取樣的間隔若太短，將不會更新。
+     */
+    public synchronized void sample() {
+        final long now = System.nanoTime();
+        final long workDone = source.getWorkDone();
+        if (lastSampleTime == 0) {
+            lastSampleTime = now;
+            lastWorkDone = workDone;
+            return;
+        }
+        final long elapsedTime = now - lastSampleTime;
+        if (elapsedTime < SAMPLE_INTERVAL) {
+            return;
+        }
+        final double instantRate = (workDone - lastWorkDone) * 1000000000.0 / elapsedTime;
+        final double currentRate = rate;
+        final double newRate;
+        if (Double.isNaN(currentRate)) {
+            newRate = instantRate;
+        } else {
+            final double alpha = 1 - Math.exp(-elapsedTime / TIME_CONSTANT);
+            newRate = currentRate + alpha * (instantRate - currentRate);
+        }
+        lastSampleTime = now;
+        lastWorkDone = workDone;
+        rate = newRate;
+
+        final long totalWork = source.getTotalWork();
+        if (totalWork > 0 && newRate > 0) {
+            remainingTime = (long) (Math.max(0, totalWork - workDone) * 1000 / newRate);
+        } else {
+            remainingTime = -1;
+        }
+    }
+
+    /**
+     * 取得被計量的進度來源。
+     *
+     * @return 傳回進度來源
+     */
+    public ProgressSource getSource() {
+        return source;
+    }
+
+    /**
+     * 取得工作量的單位。
+     *
+     * @return 傳回工作量的單位
+     */
+    public Unit getUnit() {
+        return unit;
+    }
+
+    @Override
+    public long getWorkDone() {
+        return source.getWorkDone();
+    }
+
+    @Override
+    public long getTotalWork() {
+        return source.getTotalWork();
+    }
+
+    /**
+     * 取得每秒完成的工作量。
+     *
+     * @return 傳回每秒完成的工作量，若尚未取樣足夠則回傳NaN
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * 取得推算出的剩餘時間。
+     *
+     * @return 傳回剩餘時間(毫秒)，若無法推算則回傳-1
+     */
+    public long getRemainingTime() {
+        return remainingTime;
+    }
+
+    /**
+     * 取得處理速度的文字。
+     *
+     * @return 傳回處理速度的文字，若尚未取樣足夠則回傳空字串
+     */
+    public String getRateText() {
+        final double currentRate = rate;
+        if (Double.isNaN(currentRate)) {
+            return "";
+        }
+        switch (unit) {
+            case BYTES:
+                double value = currentRate;
+                int index = 0;
+                while (value >= 1024 && index < BYTE_UNITS.length - 1) {
+                    value /= 1024;
+                    ++index;
+                }
+                return String.format("%.1f %s/s", value, BYTE_UNITS[index]);
+            default:
+                return String.format("%.1f items/s", currentRate);
+        }
+    }
+
+    /**
+     * 取得剩餘時間的文字。
+     *
+     * @return 傳回剩餘時間的文字，若無法推算則回傳空字串
+     */
+    public String getRemainingTimeText() {
+        final long time = remainingTime;
+        if (time < 0) {
+            return "";
+        }
+        final long seconds = (time + 999) / 1000;
+        return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    @Override
+    public String toString() {
+        final String rateText = getRateText();
+        final String remainingTimeText = getRemainingTimeText();
+        if (remainingTimeText.isEmpty()) {
+            return rateText;
+        }
+        return rateText.concat(", ETA ").concat(remainingTimeText);
+    }
+}
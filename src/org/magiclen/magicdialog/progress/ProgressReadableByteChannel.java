@@ -0,0 +1,72 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.progress;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * 會將讀取的位元組數量累加到進度計數器的通道。
+ *
+ * @author Magic Len
+ */
+public class ProgressReadableByteChannel implements ReadableByteChannel {
+
+    // -----物件常數-----
+    private final ReadableByteChannel channel;
+    private final ProgressCounter counter;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param channel 傳入要讀取的通道
+     * @param counter 傳入進度計數器
+     */
+    public ProgressReadableByteChannel(final ReadableByteChannel channel, final ProgressCounter counter) {
+        if (channel == null) {
+            throw new NullPointerException("The channel cannot be null.");
+        }
+        if (counter == null) {
+            throw new NullPointerException("The progress counter cannot be null.");
+        }
+        this.channel = channel;
+        this.counter = counter;
+    }
+
+    // -----物件方法-----
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        final int n = channel.read(dst);
+        if (n > 0) {
+            counter.add(n);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.progress;
+
+/**
+ * 進度來源。進度對話框會在每個畫面更新時讀取進度來源的數值，因此實作時須確保可以在任意執行緒上以很低的成本讀取。
+ *
+ * @author Magic Len
+ */
+public interface ProgressSource {
+
+    /**
+     * 取得已完成的工作量。
+     *
+     * @return 傳回已完成的工作量
+     */
+    public long getWorkDone();
+
+    /**
+     * 取得全部的工作量。
+     *
+     * @return 傳回全部的工作量，若不確定則回傳小於等於0的數值
+     */
+    public long getTotalWork();
+}
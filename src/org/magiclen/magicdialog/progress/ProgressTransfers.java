@@ -0,0 +1,90 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.magicdialog.progress;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 會回報進度的資料傳輸工具。
+ *
+ * @author Magic Len
+ */
+public final class ProgressTransfers {
+
+    // -----類別常數-----
+    /**
+     * 每次呼叫FileChannel.transferTo時最多傳輸的位元組數量。分段傳輸仍然使用零複製，只是讓進度能夠定期更新。
+     */
+    private static final long CHUNK_SIZE = 16L * 1024 * 1024;
+
+    // -----類別方法-----
+    /**
+     * 將整個檔案通道從目前位置開始的資料傳輸到另一個通道，並將傳輸的位元組數量累加到進度計數器。若進度計數器沒有設定全部的工作量，將會設定為要傳輸的位元組數量。
+     *
+     * @param source 傳入來源的檔案通道
+     * @param target 傳入目標通道
+     * @param counter 傳入進度計數器
+     * @return 傳回傳輸的位元組數量
+     * @throws IOException 傳輸時發生錯誤
+     */
+    public static long transferTo(final FileChannel source, final WritableByteChannel target, final ProgressCounter counter) throws IOException {
+        final long position = source.position();
+        final long count = Math.max(0, source.size() - position);
+        if (counter.getTotalWork() <= 0) {
+            counter.setTotalWork(count);
+        }
+        final long transferred = transferTo(source, position, count, target, counter);
+        source.position(position + transferred);
+        return transferred;
+    }
+
+    /**
+     * 將檔案通道中指定範圍的資料傳輸到另一個通道，並將傳輸的位元組數量累加到進度計數器。此方法不會改變檔案通道的位置。
+     *
+     * @param source 傳入來源的檔案通道
+     * @param position 傳入要開始傳輸的位置
+     * @param count 傳入要傳輸的位元組數量
+     * @param target 傳入目標通道
+     * @param counter 傳入進度計數器
+     * @return 傳回傳輸的位元組數量
+     * @throws IOException 傳輸時發生錯誤
+     */
+    public static long transferTo(final FileChannel source, final long position, final long count, final WritableByteChannel target, final ProgressCounter counter) throws IOException {
+        final long end = Math.min(position + count, source.size());
+        long current = position;
+        while (current < end) {
+            final long n = source.transferTo(current, Math.min(CHUNK_SIZE, end - current), target);
+            if (n <= 0) {
+                break;
+            }
+            current += n;
+            counter.add(n);
+        }
+        return current - position;
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private ProgressTransfers() {
+
+    }
+}